@@ -0,0 +1,135 @@
+// AvailabilityLedger.java
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AvailabilityLedger - books.available in memory, so checkouts of a title that is out are refused without a write.
+ * - one int counter per book id, in stripes of STRIPE ids (AtomicIntegerArray); a stripe is created once and
+ *   never replaced, so compare-and-set on a counter needs no lock
+ * - a counter is the committed available count minus the copies reserved by checkouts still in flight
+ * - insertIssue reserves a copy (counter > 0, decremented by CAS) before it opens its transaction; a counter at 0
+ *   refuses the checkout there and then; a transaction that does not commit gives its copy back (release)
+ * - issues that ran without a reservation and returns adjust the counter inside their transaction, while SQLite's
+ *   write lock orders them; a commit that then fails forgets the counter
+ * - a book whose counter is unknown (new since startup, edited, or forgotten after a mismatch) takes the database
+ *   path, which sets its counter again
+ *
+ * Loaded at startup (DBHelper.initialize) from one scan of books.
+ */
+class AvailabilityLedger {
+
+    enum Reservation { RESERVED, SOLD_OUT, UNKNOWN }
+
+    static final int STRIPE = 1024;
+    static final String SQL_LOAD = "SELECT id, available FROM books";
+
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private static volatile AtomicIntegerArray[] stripes = new AtomicIntegerArray[0];
+    private static final AtomicLong reserved = new AtomicLong(), soldOut = new AtomicLong(), released = new AtomicLong(),
+            unknown = new AtomicLong(), forgotten = new AtomicLong();
+    private static long loadNanos;
+
+    /** Sets every counter from books.available (startup). */
+    static void load(Connection c) throws SQLException {
+        long start = System.nanoTime();
+        forgetAll();
+        try (PreparedStatement ps = c.prepareStatement(SQL_LOAD); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) counters(rs.getInt(1), true).set(rs.getInt(1) % STRIPE, Math.max(0, rs.getInt(2)));
+        }
+        loadNanos = System.nanoTime() - start;
+    }
+
+    /** Takes one copy of bookId for a checkout about to start; SOLD_OUT means refuse it, UNKNOWN means ask the database. */
+    static Reservation reserve(int bookId) {
+        AtomicIntegerArray a = counters(bookId, false);
+        if (a == null) { unknown.incrementAndGet(); return Reservation.UNKNOWN; }
+        int i = bookId % STRIPE;
+        while (true) {
+            int v = a.get(i);
+            if (v == UNKNOWN) { unknown.incrementAndGet(); return Reservation.UNKNOWN; }
+            if (v <= 0) { soldOut.incrementAndGet(); return Reservation.SOLD_OUT; }
+            if (a.compareAndSet(i, v, v - 1)) { reserved.incrementAndGet(); return Reservation.RESERVED; }
+        }
+    }
+
+    /** The reserving checkout did not commit: its copy is free again. */
+    static void release(int bookId) {
+        released.incrementAndGet();
+        add(bookId, 1, UNKNOWN);
+    }
+
+    /** A checkout without a reservation took a copy; call inside its transaction, before commit. */
+    static void issued(int bookId, int available) {
+        add(bookId, -1, available);
+    }
+
+    /** A copy came back; call inside the return's transaction, before commit. */
+    static void returned(int bookId, int available) {
+        add(bookId, 1, available);
+    }
+
+    /** bookId's counter may be wrong (book edited, commit failed, the database refused a reserved copy). */
+    static void forget(int bookId) {
+        AtomicIntegerArray a = counters(bookId, false);
+        if (a != null && a.getAndSet(bookId % STRIPE, UNKNOWN) != UNKNOWN) forgotten.incrementAndGet();
+    }
+
+    /** Every counter may be wrong (catalog import). */
+    static synchronized void forgetAll() {
+        stripes = new AtomicIntegerArray[0];
+    }
+
+    // counter += delta; an unknown counter becomes ifUnknown (UNKNOWN: stays unknown)
+    private static void add(int bookId, int delta, int ifUnknown) {
+        AtomicIntegerArray a = counters(bookId, ifUnknown != UNKNOWN);
+        if (a == null) return;
+        int i = bookId % STRIPE;
+        while (true) {
+            int v = a.get(i);
+            int next = v == UNKNOWN ? ifUnknown : v + delta;
+            if (v == UNKNOWN && ifUnknown == UNKNOWN) return;
+            if (a.compareAndSet(i, v, Math.max(0, next))) return;
+        }
+    }
+
+    // the stripe holding bookId's counter; with create, made (all UNKNOWN) if missing
+    private static AtomicIntegerArray counters(int bookId, boolean create) {
+        if (bookId < 0) return null;
+        int s = bookId / STRIPE;
+        AtomicIntegerArray[] all = stripes;
+        if (s < all.length && all[s] != null) return all[s];
+        if (!create) return null;
+        synchronized (AvailabilityLedger.class) {
+            all = stripes;
+            if (s < all.length && all[s] != null) return all[s];
+            AtomicIntegerArray a = new AtomicIntegerArray(STRIPE);
+            for (int i = 0; i < STRIPE; i++) a.set(i, UNKNOWN);
+            AtomicIntegerArray[] grown = Arrays.copyOf(all, Math.max(all.length, s + 1));
+            grown[s] = a;
+            stripes = grown; // published by the volatile write
+            return a;
+        }
+    }
+
+    /** The counter for bookId, or -1 if unknown. */
+    static int available(int bookId) {
+        AtomicIntegerArray a = counters(bookId, false);
+        int v = a == null ? UNKNOWN : a.get(bookId % STRIPE);
+        return v == UNKNOWN ? -1 : v;
+    }
+
+    static String stats() {
+        AtomicIntegerArray[] all = stripes;
+        int stripesUsed = 0;
+        for (AtomicIntegerArray a : all) if (a != null) stripesUsed++;
+        return String.format("availability ledger stripes=%d (%d KB) reserved=%d soldOutRefused=%d released=%d unknown=%d forgotten=%d load=%.1fms",
+                stripesUsed, stripesUsed * STRIPE * 4 >> 10, reserved.get(), soldOut.get(), released.get(), unknown.get(),
+                forgotten.get(), loadNanos / 1e6);
+    }
+}
@@ -0,0 +1,179 @@
+// BackgroundImageCache.java
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BackgroundImageCache - the 00.jpg page background, shared by every window.
+ * - the file is decoded once per process
+ * - scaled copies are kept per size bucket (rounded up to BUCKET px), least recently used dropped past maxMb
+ * - scaling runs on one background thread, halving step by step with bilinear Graphics2D (not getScaledInstance)
+ * - a resize drag asks for many sizes: each request waits COALESCE_MILLIS and is skipped if a newer one
+ *   for the same component replaced it, so only the size the drag ends on is scaled
+ * - until the right bucket is ready the nearest cached copy is stretched over the component, so there is no flicker
+ *
+ * Pages use label(window, width, height) as their background JLabel; a custom paintComponent calls paint(g, this).
+ * Cache budget: -Dlms.ui.bgCacheMb=N (default 32).
+ */
+class BackgroundImageCache {
+
+    static final String FILE = "00.jpg";
+    static final int BUCKET = 128;
+    static final long MAX_BYTES = Long.getLong("lms.ui.bgCacheMb", 32L) << 20;
+    static final long COALESCE_MILLIS = 80;
+
+    private static final ScheduledExecutorService SCALER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "background-scaler");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static BufferedImage source;
+    private static boolean decoded;
+    private static long bytes;
+    private static long hits, stretched, scales, skipped, scaleNanos;
+    private static final LinkedHashMap<Long, BufferedImage> scaled = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Map<Component, Long> latest = new WeakHashMap<>(); // bucket each component asked for last
+
+    /** A background label for window; it paints 00.jpg over its whole area at whatever size it gets. */
+    static JLabel label(Window window, int width, int height) {
+        JLabel label = new JLabel();
+        int w = window.getWidth() > 0 ? window.getWidth() : width;
+        int h = window.getHeight() > 0 ? window.getHeight() : height;
+        label.setIcon(new Icon() {
+            public void paintIcon(Component c, Graphics g, int x, int y) {
+                paint(g, c);
+            }
+
+            public int getIconWidth() { return w; }
+
+            public int getIconHeight() { return h; }
+        });
+        return label;
+    }
+
+    /** Paints the background stretched over c; false (nothing painted) if 00.jpg is missing. Call from paint code. */
+    static boolean paint(Graphics g, Component c) {
+        int w = c.getWidth(), h = c.getHeight();
+        Image img = get(c, w, h);
+        if (img == null) return false;
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.drawImage(img, 0, 0, w, h, null);
+        g2.dispose();
+        return true;
+    }
+
+    /**
+     * The cached copy for w x h's bucket, or else the nearest one to stretch meanwhile (null if 00.jpg is missing).
+     * A missing bucket is scaled in the background, then c is repainted. EDT only.
+     */
+    static Image get(Component c, int w, int h) {
+        BufferedImage src = source();
+        if (src == null || w <= 0 || h <= 0) return null;
+        int bw = bucket(w), bh = bucket(h);
+        long key = ((long) bw << 32) | bh;
+        synchronized (BackgroundImageCache.class) {
+            BufferedImage exact = scaled.get(key);
+            if (exact != null) {
+                hits++;
+                latest.remove(c);
+                return exact;
+            }
+            stretched++;
+            if (!Long.valueOf(key).equals(latest.put(c, key))) {
+                SCALER.schedule(() -> scale(c, key, bw, bh), COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            return nearest(bw, bh, src);
+        }
+    }
+
+    private static void scale(Component c, long key, int bw, int bh) {
+        synchronized (BackgroundImageCache.class) {
+            if (!Long.valueOf(key).equals(latest.get(c))) { skipped++; return; } // the component moved on to another size
+            if (scaled.containsKey(key)) { SwingUtilities.invokeLater(c::repaint); return; }
+        }
+        long start = System.nanoTime();
+        BufferedImage img = scaleDown(source, bw, bh);
+        synchronized (BackgroundImageCache.class) {
+            scales++;
+            scaleNanos += System.nanoTime() - start;
+            if (scaled.put(key, img) == null) bytes += 4L * bw * bh;
+            Iterator<BufferedImage> eldest = scaled.values().iterator();
+            while (bytes > MAX_BYTES && scaled.size() > 1) {
+                BufferedImage old = eldest.next();
+                bytes -= 4L * old.getWidth() * old.getHeight();
+                eldest.remove();
+            }
+        }
+        SwingUtilities.invokeLater(c::repaint);
+    }
+
+    // multi-step: halve while more than twice too big, so bilinear never skips source pixels; upscaling is one step
+    static BufferedImage scaleDown(BufferedImage src, int w, int h) {
+        BufferedImage img = src;
+        int cw = src.getWidth(), ch = src.getHeight();
+        do {
+            cw = cw > w ? Math.max(cw / 2, w) : w;
+            ch = ch > h ? Math.max(ch / 2, h) : h;
+            BufferedImage step = new BufferedImage(cw, ch, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(img, 0, 0, cw, ch, null);
+            g.dispose();
+            img = step;
+        } while (cw != w || ch != h);
+        return img;
+    }
+
+    // caller holds the lock
+    private static BufferedImage nearest(int bw, int bh, BufferedImage fallback) {
+        BufferedImage best = fallback;
+        long bestDistance = Long.MAX_VALUE;
+        for (BufferedImage img : scaled.values()) {
+            long d = Math.abs(img.getWidth() - bw) + Math.abs(img.getHeight() - bh);
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = img;
+            }
+        }
+        return best;
+    }
+
+    private static int bucket(int n) {
+        return (n + BUCKET - 1) / BUCKET * BUCKET;
+    }
+
+    // decoded once, to an opaque RGB image (the cheapest to draw and to scale)
+    private static synchronized BufferedImage source() {
+        if (decoded) return source;
+        decoded = true;
+        try {
+            File f = new File(FILE);
+            BufferedImage raw = f.isFile() ? ImageIO.read(f) : null;
+            if (raw == null) return null;
+            source = new BufferedImage(raw.getWidth(), raw.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = source.createGraphics();
+            g.drawImage(raw, 0, 0, null);
+            g.dispose();
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+        return source;
+    }
+
+    static synchronized String stats() {
+        return String.format("backgrounds cached=%d (%d KB of %d KB) hits=%d stretched=%d scales=%d avgScale=%.1fms coalesced=%d",
+                scaled.size(), bytes >> 10, MAX_BYTES >> 10, hits, stretched, scales,
+                scales == 0 ? 0 : scaleNanos / 1_000_000.0 / scales, skipped);
+    }
+}
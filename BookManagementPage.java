@@ -20,9 +20,7 @@ public class BookManagementPage extends JFrame {
         setSize(900, 600);
         setLocationRelativeTo(null);
 
-        ImageIcon bgIcon = new ImageIcon("00.jpg");
-        Image bgImg = bgIcon.getImage().getScaledInstance(getWidth(), getHeight(), Image.SCALE_SMOOTH);
-        JLabel background = new JLabel(new ImageIcon(bgImg));
+        JLabel background = BackgroundImageCache.label(this, 900, 600);
         background.setLayout(new GridBagLayout());
         add(background);
 
@@ -0,0 +1,127 @@
+// CatalogCache.java
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CatalogCache - recently looked-up books rows, in front of DBHelper.getBookById / getBookByISBN.
+ * - LRU by book id, bounded by entry count; an ISBN index points at rows that an ISBN lookup returned
+ * - write-through: DBHelper's book writes invalidate the row they touched, issue/return set the new
+ *   available count in place, bulk loads (seeding, catalog import) clear everything
+ * - every invalidation bumps a generation; a row read from the database before one is not cached,
+ *   so a lookup racing a write can never put the old row back
+ * - issue/return take a ticket while they hold the database write lock, so tickets follow commit order;
+ *   an available count that arrives after a newer write (ticket or invalidation) drops the row instead
+ * - callers get a copy of the cached row, never the cached array
+ * - stats(): hits, misses, hit ratio, evictions and an estimate of the memory held
+ *
+ * Size: -Dlms.cache.books=N entries (default 2000, 0 disables).
+ */
+class CatalogCache {
+
+    static final int MAX_ENTRIES = Integer.getInteger("lms.cache.books", 2000);
+
+    private static final LinkedHashMap<Integer, Object[]> byId = new LinkedHashMap<Integer, Object[]>(64, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> eldest) {
+            if (size() <= MAX_ENTRIES) return false;
+            evictions++;
+            unindex(eldest.getValue());
+            return true;
+        }
+    };
+    private static final Map<String, Integer> byIsbn = new HashMap<>();
+    private static long generation;
+    private static long ticketsIssued, settled; // setAvailable tickets up to settled are older than the cached rows
+    private static long hits, misses, evictions, bytes;
+
+    /** Read before the database lookup and pass to put(). */
+    static synchronized long generation() { return generation; }
+
+    static synchronized Object[] get(int id) {
+        Object[] row = byId.get(id);
+        return counted(row);
+    }
+
+    static synchronized Object[] getByIsbn(String isbn) {
+        Integer id = isbn == null ? null : byIsbn.get(isbn);
+        return counted(id == null ? null : byId.get(id));
+    }
+
+    /** Caches a row read from the database, unless a write came in since readAt = generation(). */
+    static synchronized void put(Object[] row, long readAt) {
+        if (MAX_ENTRIES <= 0 || row == null || readAt != generation) return;
+        Object[] old = byId.put((Integer) row[0], row.clone());
+        if (old != null) unindex(old);
+        bytes += footprint(row);
+    }
+
+    /** As put, for the row getBookByISBN(isbn) returned (with duplicate ISBNs, not necessarily any row with that ISBN). */
+    static synchronized void putIsbn(String isbn, Object[] row, long readAt) {
+        if (MAX_ENTRIES <= 0 || row == null || readAt != generation) return;
+        put(row, readAt);
+        byIsbn.put(isbn, (Integer) row[0]);
+    }
+
+    /** Take inside the write transaction, before commit, and pass to setAvailable after it. */
+    static synchronized long writeTicket() { return ++ticketsIssued; }
+
+    /** Issue / return committed: the row stays cached with its new available count. */
+    static synchronized void setAvailable(int id, int available, long ticket) {
+        if (ticket <= settled) { invalidate(id); return; } // a newer write got here first
+        generation++;
+        settled = ticket;
+        Object[] row = byId.get(id);
+        if (row != null) row[9] = available;
+    }
+
+    /** A book was edited or deleted: drop its row and its ISBN entry. */
+    static synchronized void invalidate(int id) {
+        generation++;
+        settled = ticketsIssued;
+        Object[] old = byId.remove(id);
+        if (old != null) unindex(old);
+    }
+
+    /** A book with this ISBN was added: an ISBN lookup may now find a different row. */
+    static synchronized void invalidateIsbn(String isbn) {
+        generation++;
+        Integer id = isbn == null ? null : byIsbn.remove(isbn);
+        if (id != null) invalidate(id);
+    }
+
+    static synchronized void clear() {
+        generation++;
+        settled = ticketsIssued;
+        byId.clear();
+        byIsbn.clear();
+        bytes = 0;
+    }
+
+    private static Object[] counted(Object[] row) {
+        if (row == null) { misses++; return null; }
+        hits++;
+        return row.clone();
+    }
+
+    // called with the lock held, for a row leaving byId
+    private static void unindex(Object[] row) {
+        bytes -= footprint(row);
+        byIsbn.values().remove(row[0]);
+    }
+
+    // rough heap size of one cached row: the array, its boxed ints and strings, and the two map entries
+    private static long footprint(Object[] row) {
+        long n = 16 + 4L * row.length + 2 * 48;
+        for (Object v : row) {
+            if (v instanceof String) n += 40 + ((String) v).length();
+            else if (v != null) n += 16;
+        }
+        return n;
+    }
+
+    static synchronized String stats() {
+        long lookups = hits + misses;
+        return String.format("catalog cache entries=%d/%d hits=%d misses=%d hitRatio=%.1f%% evictions=%d approx=%dKB",
+                byId.size(), MAX_ENTRIES, hits, misses, lookups == 0 ? 0 : 100.0 * hits / lookups, evictions, bytes >> 10);
+    }
+}
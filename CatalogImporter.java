@@ -0,0 +1,563 @@
+// CatalogImporter.java
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * CatalogImporter - streams vendor catalog dumps into the books table.
+ * - formats: CSV, TSV (optional header line naming the columns) and MARC-lite (see parseMarc); a .gz suffix is unpacked on the fly
+ * - the reading thread hands chunks of raw records to a bounded queue, so memory stays flat for any file size
+ * - parser threads turn records into DBHelper.BookRow; bad rows are counted and written to <file>.rejected
+ * - one writer thread upserts by ISBN (DBHelper.upsertBooksByIsbn) on a single connection, one transaction per batch
+ * - chunks are numbered as read and the writer applies them in that order, so for a repeated ISBN the last row in the file wins
+ * - reports rows/sec and inserted / updated / repeated-in-file / rejected counts; progress is measured in bytes read
+ *
+ * Command line: java CatalogImporter <file> [csv|tsv|marc]. Admin dashboard: "Import catalog".
+ * Parser threads: -Dlms.import.threads=N (default cores - 1). Queue depth: -Dlms.import.queueChunks=N (default 16).
+ */
+class CatalogImporter {
+
+    enum Format { CSV, TSV, MARC }
+
+    interface ProgressListener {
+        void onProgress(long bytesRead, long totalBytes, long rowsWritten);
+    }
+
+    static final int THREADS = Integer.getInteger("lms.import.threads", Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    static final int QUEUE_CHUNKS = Integer.getInteger("lms.import.queueChunks", 16);
+    static final int CHUNK_RECORDS = 256;
+    static final int MAX_REJECT_SAMPLES = 20;
+
+    // books columns in file order when a CSV/TSV has no header
+    static final String[] COLUMNS = {"isbn", "title", "author", "category", "publisher", "publish_year", "edition", "quantity"};
+
+    // queue markers: ends the stream for one consumer
+    private static final Chunk<Raw> END_OF_RECORDS = new Chunk<>(-1, new ArrayList<>());
+    private static final Chunk<DBHelper.BookRow> END_OF_ROWS = new Chunk<>(-1, new ArrayList<>());
+
+    private final File file;
+    private final Format format;
+    private volatile boolean cancelled;
+
+    private final AtomicLong recordsRead = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong repeated = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final List<String> rejectSamples = new ArrayList<>();
+    private Writer rejectWriter;
+
+    CatalogImporter(File file, Format format) {
+        this.file = file;
+        this.format = format;
+    }
+
+    /** Format from the file name (.csv / .tsv / .txt / .mrk / .marc, optionally + .gz); CSV when unknown. */
+    static Format detectFormat(File f) {
+        String name = f.getName().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) name = name.substring(0, name.length() - 3);
+        if (name.endsWith(".tsv") || name.endsWith(".tab") || name.endsWith(".txt")) return Format.TSV;
+        if (name.endsWith(".mrk") || name.endsWith(".marc")) return Format.MARC;
+        return Format.CSV;
+    }
+
+    void cancel() { cancelled = true; }
+
+    File rejectFile() { return new File(file.getPath() + ".rejected"); }
+
+    /** Runs the whole import on the calling thread (plus parser and writer threads). */
+    Report run(ProgressListener listener) throws IOException {
+        long start = System.nanoTime();
+        long total = file.length();
+        BlockingQueue<Chunk<Raw>> records = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+        BlockingQueue<Chunk<DBHelper.BookRow>> rows = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) threads.add(start(new Thread(() -> parseLoop(records, rows), "import-parse-" + i)));
+        Thread writer = start(new Thread(() -> writeLoop(rows), "import-write"));
+
+        CountingInputStream counter = new CountingInputStream(new FileInputStream(file));
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                file.getName().toLowerCase(Locale.ROOT).endsWith(".gz") ? new GZIPInputStream(counter, 1 << 16) : counter,
+                StandardCharsets.UTF_8), 1 << 16)) {
+            RecordReader reader = new RecordReader(in, format);
+            List<Raw> chunk = new ArrayList<>(CHUNK_RECORDS);
+            long seq = 0;
+            Raw r;
+            while (!cancelled && failure.get() == null && (r = reader.next()) != null) {
+                chunk.add(r);
+                if (chunk.size() == CHUNK_RECORDS) {
+                    put(records, new Chunk<>(seq++, chunk));
+                    recordsRead.addAndGet(chunk.size());
+                    chunk = new ArrayList<>(CHUNK_RECORDS);
+                    if (listener != null) listener.onProgress(counter.count, total, inserted.get() + updated.get());
+                }
+            }
+            if (!chunk.isEmpty() && !cancelled) {
+                put(records, new Chunk<>(seq, chunk));
+                recordsRead.addAndGet(chunk.size());
+            }
+        } finally {
+            for (int i = 0; i < THREADS; i++) put(records, END_OF_RECORDS);
+            for (Thread t : threads) join(t);
+            join(writer);
+            synchronized (rejectSamples) {
+                if (rejectWriter != null) rejectWriter.close();
+            }
+        }
+        if (listener != null) listener.onProgress(total, total, inserted.get() + updated.get());
+
+        Throwable err = failure.get();
+        if (err != null) throw new IOException("Import stopped: " + err.getMessage(), err);
+        return new Report(recordsRead.get(), inserted.get(), updated.get(), repeated.get(), rejected.get(),
+                System.nanoTime() - start, cancelled, new ArrayList<>(rejectSamples));
+    }
+
+    // ---------- parser threads ----------
+
+    private void parseLoop(BlockingQueue<Chunk<Raw>> records, BlockingQueue<Chunk<DBHelper.BookRow>> rows) {
+        try {
+            Chunk<Raw> chunk;
+            while ((chunk = records.take()) != END_OF_RECORDS) {
+                List<DBHelper.BookRow> parsed = new ArrayList<>(chunk.items.size());
+                // after a failure or cancel: keep draining so the reader never blocks
+                if (failure.get() == null && !cancelled) {
+                    for (Raw r : chunk.items) {
+                        try {
+                            parsed.add(format == Format.MARC ? parseMarc(r.text) : parseDelimited(r));
+                        } catch (IllegalArgumentException bad) {
+                            reject(r, bad.getMessage());
+                        }
+                    }
+                }
+                rows.put(new Chunk<>(chunk.seq, parsed)); // even when empty: the writer waits for every number
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            put(rows, END_OF_ROWS);
+        }
+    }
+
+    private DBHelper.BookRow parseDelimited(Raw r) {
+        String[] f = format == Format.TSV ? r.text.split("\t", -1) : splitCsv(r.text);
+        int[] map = r.columns;
+        return toBookRow(field(f, map[0]), field(f, map[1]), field(f, map[2]), field(f, map[3]),
+                field(f, map[4]), field(f, map[5]), field(f, map[6]), field(f, map[7]));
+    }
+
+    private static String field(String[] fields, int index) {
+        return index >= 0 && index < fields.length ? fields[index].trim() : "";
+    }
+
+    /*
+     * MARC-lite: one field per line, "TAG value" or mnemonic "=TAG  ind$avalue$bvalue", records separated by blank lines.
+     * 020 ISBN, 100 author, 245 title ($a $b), 250 edition, 260/264 publisher ($b) and year ($c), 650 category, 949 quantity.
+     * Other tags are ignored; for repeated tags the first one wins.
+     */
+    static DBHelper.BookRow parseMarc(String record) {
+        Map<String, String> tags = new HashMap<>();
+        for (String line : record.split("\n")) {
+            String l = line.startsWith("=") ? line.substring(1) : line;
+            if (l.length() < 4) continue;
+            tags.putIfAbsent(l.substring(0, 3), l.substring(3).trim());
+        }
+        String pub = tags.getOrDefault("260", tags.getOrDefault("264", ""));
+        String publisher = pub.indexOf('$') >= 0 ? subfield(pub, 'b') : pub;
+        String year = pub.indexOf('$') >= 0 ? subfield(pub, 'c') : "";
+        if (year.isEmpty()) year = tags.getOrDefault("008", "").length() >= 11 ? tags.get("008").substring(7, 11) : "";
+        String isbn = marcValue(tags.get("020"), "a");
+        int space = isbn.indexOf(' ');
+        if (space > 0) isbn = isbn.substring(0, space); // "9780131103627 (pbk.)"
+        return toBookRow(isbn, marcValue(tags.get("245"), "ab"), marcValue(tags.get("100"), "a"), marcValue(tags.get("650"), "a"),
+                trimPunctuation(publisher), year.replaceAll("[^0-9]", ""), marcValue(tags.get("250"), "a"), marcValue(tags.get("949"), "a"));
+    }
+
+    // plain value, or the given subfields joined by spaces (indicators before the first $ are dropped)
+    private static String marcValue(String v, String codes) {
+        if (v == null) return "";
+        if (v.indexOf('$') < 0) return trimPunctuation(v);
+        StringBuilder sb = new StringBuilder();
+        for (String part : v.substring(v.indexOf('$') + 1).split("\\$")) {
+            if (part.length() > 1 && codes.indexOf(part.charAt(0)) >= 0) sb.append(sb.length() == 0 ? "" : " ").append(part.substring(1).trim());
+        }
+        return trimPunctuation(sb.toString());
+    }
+
+    private static String subfield(String v, char code) {
+        for (String part : v.split("\\$")) {
+            if (part.length() > 1 && part.charAt(0) == code) return trimPunctuation(part.substring(1));
+        }
+        return "";
+    }
+
+    private static String trimPunctuation(String s) {
+        return s.trim().replaceAll("[\\s/:;,.]+$", "");
+    }
+
+    private static DBHelper.BookRow toBookRow(String isbn, String title, String author, String category,
+                                              String publisher, String year, String edition, String quantity) {
+        if (isbn.isEmpty()) throw new IllegalArgumentException("missing ISBN");
+        int digits = isbn.replaceAll("[-\\s]", "").length();
+        if (!isbn.matches("[0-9Xx\\-\\s]+") || (digits != 10 && digits != 13)) throw new IllegalArgumentException("bad ISBN '" + isbn + "'");
+        if (title.isEmpty()) throw new IllegalArgumentException("missing title");
+        if (author.isEmpty()) throw new IllegalArgumentException("missing author");
+        int qty = 1;
+        if (!quantity.isEmpty()) {
+            try {
+                qty = Integer.parseInt(quantity);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("bad quantity '" + quantity + "'");
+            }
+            if (qty < 0) throw new IllegalArgumentException("negative quantity");
+        }
+        return new DBHelper.BookRow(isbn, title, author, category, publisher, year, edition, qty, qty);
+    }
+
+    // RFC 4180: commas inside quotes, "" for a literal quote
+    static String[] splitCsv(String line) {
+        List<String> out = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') { sb.append('"'); i++; }
+                    else quoted = false;
+                } else sb.append(ch);
+            } else if (ch == '"') quoted = true;
+            else if (ch == ',') { out.add(sb.toString()); sb.setLength(0); }
+            else sb.append(ch);
+        }
+        out.add(sb.toString());
+        return out.toArray(new String[0]);
+    }
+
+    private void reject(Raw r, String reason) {
+        rejected.incrementAndGet();
+        synchronized (rejectSamples) {
+            String msg = "line " + r.line + ": " + reason;
+            if (rejectSamples.size() < MAX_REJECT_SAMPLES) rejectSamples.add(msg);
+            try {
+                if (rejectWriter == null) rejectWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(rejectFile()), StandardCharsets.UTF_8));
+                rejectWriter.write(msg + "\t" + r.text.replace('\n', '|') + "\n");
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    // ---------- writer thread ----------
+
+    private void writeLoop(BlockingQueue<Chunk<DBHelper.BookRow>> rows) {
+        int open = THREADS;
+        // ISBN -> row for the current batch; chunks arrive in file order, so a repeated ISBN replaces the earlier row
+        LinkedHashMap<String, DBHelper.BookRow> batch = new LinkedHashMap<>();
+        // parsers finish out of order: chunks that came early wait here until the ones before them are in
+        Map<Long, List<DBHelper.BookRow>> early = new HashMap<>();
+        long next = 0;
+        try (Connection c = DBHelper.getConnection()) {
+            c.setAutoCommit(false);
+            while (open > 0) {
+                Chunk<DBHelper.BookRow> parsed = rows.take();
+                if (parsed == END_OF_ROWS) { open--; continue; }
+                if (failure.get() != null) continue;
+                early.put(parsed.seq, parsed.items);
+                List<DBHelper.BookRow> inOrder;
+                while ((inOrder = early.remove(next)) != null) {
+                    next++;
+                    for (DBHelper.BookRow b : inOrder) {
+                        if (batch.put(b.isbn, b) != null) repeated.incrementAndGet();
+                    }
+                    if (batch.size() >= DBHelper.BATCH_SIZE) flush(c, batch);
+                }
+            }
+            if (failure.get() == null && !batch.isEmpty()) flush(c, batch);
+        } catch (SQLException ex) {
+            failure.compareAndSet(null, ex);
+            drain(rows, open);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, ex);
+        }
+        LibraryStats.checkSoon(); // committed batches changed the totals by amounts not known here
+    }
+
+    private void flush(Connection c, LinkedHashMap<String, DBHelper.BookRow> batch) throws SQLException {
+        try {
+            int[] counts = DBHelper.upsertBooksByIsbn(c, new ArrayList<>(batch.values()));
+            c.commit();
+            CatalogCache.clear(); // rows changed by ISBN: ids are not known here
+            AvailabilityLedger.forgetAll();
+            inserted.addAndGet(counts[0]);
+            updated.addAndGet(counts[1]);
+            batch.clear();
+        } catch (SQLException ex) {
+            c.rollback();
+            throw ex;
+        }
+    }
+
+    // after a write failure: consume what the parsers still produce so they can finish
+    private static void drain(BlockingQueue<Chunk<DBHelper.BookRow>> rows, int open) {
+        try {
+            while (open > 0) if (rows.take() == END_OF_ROWS) open--;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------- plumbing ----------
+
+    private static Thread start(Thread t) {
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private static void join(Thread t) {
+        try { t.join(); } catch (InterruptedException ex) { Thread.currentThread().interrupt(); }
+    }
+
+    private static <T> void put(BlockingQueue<T> q, T item) {
+        try { q.put(item); } catch (InterruptedException ex) { Thread.currentThread().interrupt(); }
+    }
+
+    /* Records or parsed rows of one chunk, numbered in file order. */
+    private static final class Chunk<T> {
+        final long seq;
+        final List<T> items;
+
+        Chunk(long seq, List<T> items) { this.seq = seq; this.items = items; }
+    }
+
+    /* One record as read from the file: its first line number, text, and the header's column map (CSV/TSV). */
+    private static final class Raw {
+        final long line;
+        final String text;
+        final int[] columns;
+
+        Raw(long line, String text, int[] columns) { this.line = line; this.text = text; this.columns = columns; }
+    }
+
+    /* Splits the character stream into records: lines (joined while a CSV quote is open) or blank-line separated MARC blocks. */
+    private static final class RecordReader {
+        private final BufferedReader in;
+        private final Format format;
+        private int[] columns;
+        private long lineNo;
+
+        RecordReader(BufferedReader in, Format format) {
+            this.in = in;
+            this.format = format;
+        }
+
+        Raw next() throws IOException {
+            return format == Format.MARC ? nextMarc() : nextDelimited();
+        }
+
+        private Raw nextDelimited() throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) return null;
+                lineNo++;
+                if (lineNo == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') line = line.substring(1);
+            } while (line.trim().isEmpty());
+            long first = lineNo;
+            if (format == Format.CSV) {
+                StringBuilder sb = new StringBuilder(line);
+                while (quoteCount(sb) % 2 == 1) { // quoted field spans lines
+                    String more = in.readLine();
+                    if (more == null) break;
+                    lineNo++;
+                    sb.append('\n').append(more);
+                }
+                line = sb.toString();
+            }
+            if (columns == null) {
+                String[] head = format == Format.TSV ? line.split("\t", -1) : splitCsv(line);
+                columns = headerColumns(head);
+                if (columns != null) return nextDelimited();
+                columns = new int[COLUMNS.length];
+                for (int i = 0; i < columns.length; i++) columns[i] = i;
+            }
+            return new Raw(first, line, columns);
+        }
+
+        private Raw nextMarc() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            long first = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (line.trim().isEmpty()) {
+                    if (sb.length() > 0) break;
+                    continue;
+                }
+                if (sb.length() == 0) first = lineNo;
+                else sb.append('\n');
+                sb.append(line);
+            }
+            return sb.length() == 0 ? null : new Raw(first, sb.toString(), null);
+        }
+
+        private static int quoteCount(CharSequence s) {
+            int n = 0;
+            for (int i = 0; i < s.length(); i++) if (s.charAt(i) == '"') n++;
+            return n;
+        }
+
+        // header line -> index of each COLUMNS entry (-1 when absent); null if the line is data, not a header
+        private static int[] headerColumns(String[] head) {
+            int[] map = new int[COLUMNS.length];
+            java.util.Arrays.fill(map, -1);
+            boolean isHeader = false;
+            for (int i = 0; i < head.length; i++) {
+                String h = head[i].trim().toLowerCase(Locale.ROOT).replace(' ', '_');
+                if (h.equals("year")) h = "publish_year";
+                if (h.equals("qty") || h.equals("copies")) h = "quantity";
+                for (int k = 0; k < COLUMNS.length; k++) {
+                    if (COLUMNS[k].equals(h) && map[k] < 0) { map[k] = i; if (k == 0) isHeader = true; }
+                }
+            }
+            return isHeader ? map : null;
+        }
+    }
+
+    /* Bytes pulled from the file, for progress. */
+    private static final class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) { super(in); }
+
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+
+    static final class Report {
+        final long records, inserted, updated, repeated, rejected, nanos;
+        final boolean cancelled;
+        final List<String> rejectSamples;
+
+        // repeated: rows whose ISBN came again later in the file, so only the later row was written
+        Report(long records, long inserted, long updated, long repeated, long rejected, long nanos, boolean cancelled, List<String> rejectSamples) {
+            this.records = records; this.inserted = inserted; this.updated = updated; this.repeated = repeated; this.rejected = rejected;
+            this.nanos = nanos; this.cancelled = cancelled; this.rejectSamples = rejectSamples;
+        }
+
+        double rowsPerSecond() {
+            return nanos == 0 ? 0 : records * 1_000_000_000.0 / nanos;
+        }
+
+        public String toString() {
+            return String.format("%s%d records: %d inserted, %d updated, %d repeated in file, %d rejected in %.1f s (%.0f rows/s)",
+                    cancelled ? "CANCELLED after " : "", records, inserted, updated, repeated, rejected, nanos / 1e9, rowsPerSecond());
+        }
+    }
+
+    // ---------- admin dashboard ----------
+
+    /** File chooser, then a progress dialog; the import runs on a SwingWorker. */
+    static void showDialog(Component parent) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("Catalog files (csv, tsv, txt, mrk, marc, gz)", "csv", "tsv", "tab", "txt", "mrk", "marc", "gz"));
+        if (chooser.showOpenDialog(parent) != JFileChooser.APPROVE_OPTION) return;
+        File f = chooser.getSelectedFile();
+        CatalogImporter importer = new CatalogImporter(f, detectFormat(f));
+
+        JDialog dialog = new JDialog(SwingUtilities.getWindowAncestor(parent), "Import catalog", Dialog.ModalityType.MODELESS);
+        JProgressBar bar = new JProgressBar(0, 1000);
+        bar.setStringPainted(true);
+        JLabel status = new JLabel("Importing " + f.getName() + " as " + importer.format + "...");
+        JButton cancelBtn = new JButton("Cancel");
+        cancelBtn.addActionListener(e -> { importer.cancel(); cancelBtn.setEnabled(false); });
+        JPanel p = new JPanel(new BorderLayout(8, 8));
+        p.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        p.add(status, BorderLayout.NORTH);
+        p.add(bar, BorderLayout.CENTER);
+        p.add(cancelBtn, BorderLayout.SOUTH);
+        dialog.setContentPane(p);
+        dialog.setSize(480, 150);
+        dialog.setLocationRelativeTo(parent);
+        dialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        dialog.setVisible(true);
+
+        long startNanos = System.nanoTime();
+        new SwingWorker<Report, long[]>() {
+            protected Report doInBackground() throws Exception {
+                return importer.run((read, total, written) -> publish(new long[]{read, total, written}));
+            }
+
+            protected void process(List<long[]> chunks) {
+                long[] last = chunks.get(chunks.size() - 1);
+                bar.setValue(last[1] == 0 ? 0 : (int) (last[0] * 1000 / last[1]));
+                double secs = (System.nanoTime() - startNanos) / 1e9;
+                status.setText(String.format("%,d rows written (%.0f rows/s)", last[2], secs == 0 ? 0 : last[2] / secs));
+            }
+
+            protected void done() {
+                dialog.dispose();
+                try {
+                    Report r = get();
+                    StringBuilder msg = new StringBuilder(r.toString());
+                    if (r.rejected > 0) {
+                        msg.append("\n\nRejected rows (all of them are in ").append(importer.rejectFile().getName()).append("):");
+                        for (String s : r.rejectSamples) msg.append("\n  ").append(s);
+                    }
+                    JOptionPane.showMessageDialog(parent, msg.toString(), "Import catalog", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(parent, "Import failed: " + ex.getMessage(), "Import catalog", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    // ---------- command line ----------
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("usage: java CatalogImporter <file> [csv|tsv|marc]");
+            return;
+        }
+        File f = new File(args[0]);
+        Format fmt = args.length > 1 ? Format.valueOf(args[1].toUpperCase(Locale.ROOT)) : detectFormat(f);
+        DBHelper.initialize();
+        CatalogImporter importer = new CatalogImporter(f, fmt);
+        long[] lastPrint = {System.nanoTime()};
+        Report r = importer.run((read, total, written) -> {
+            if (System.nanoTime() - lastPrint[0] < 1_000_000_000L) return;
+            lastPrint[0] = System.nanoTime();
+            System.out.printf("  %5.1f%%  %,d rows written%n", total == 0 ? 100.0 : read * 100.0 / total, written);
+        });
+        System.out.println(r);
+        for (String s : r.rejectSamples) System.out.println("  rejected " + s);
+        if (r.rejected > 0) System.out.println("All rejected rows: " + importer.rejectFile());
+    }
+}
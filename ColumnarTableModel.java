@@ -0,0 +1,214 @@
+// ColumnarTableModel.java
+import javax.swing.table.AbstractTableModel;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ColumnarTableModel - read-only table model that stores each column as one array instead of a Vector per row.
+ * - INT columns (ids, quantities, late days) are int[]: no boxed Integer per cell
+ * - DICT columns (category, publisher, dates, issued by...) are int[] codes into a per-column dictionary,
+ *   so a value repeated on a million rows is stored once
+ * - TEXT columns (titles, names, e-mails) are a plain String[]
+ * - appendRow(ResultSet) reads a row whose select list is in column order, straight into the arrays
+ * - getValueAt boxes on demand, only for the cells a JTable is painting
+ * - rowOfId / insertRow / setRow / removeRow apply single-row changes in place (TableSync)
+ *
+ * Drop-in for the DefaultTableModel calls the pages use: addRow, setRowCount(0), getValueAt, getRowCount.
+ */
+class ColumnarTableModel extends AbstractTableModel {
+
+    enum Type { INT, TEXT, DICT }
+
+    private final String[] names;
+    private final Type[] types;
+    private final int[][] ints;        // INT values and DICT codes, per column
+    private final String[][] texts;    // TEXT values, per column
+    private final Dictionary[] dicts;  // DICT columns only
+    private int rows;
+
+    ColumnarTableModel(String[] names, Type[] types) {
+        if (names.length != types.length) throw new IllegalArgumentException(names.length + " names for " + types.length + " types");
+        this.names = names;
+        this.types = types;
+        ints = new int[types.length][];
+        texts = new String[types.length][];
+        dicts = new Dictionary[types.length];
+        for (int c = 0; c < types.length; c++) {
+            if (types[c] == Type.TEXT) texts[c] = new String[16];
+            else ints[c] = new int[16];
+            if (types[c] == Type.DICT) dicts[c] = new Dictionary();
+        }
+    }
+
+    /** An empty model with the same columns (e.g. to load a page off the EDT, then addRows it here). */
+    ColumnarTableModel emptyCopy() {
+        return new ColumnarTableModel(names, types);
+    }
+
+    public int getRowCount() { return rows; }
+
+    public int getColumnCount() { return names.length; }
+
+    public String getColumnName(int column) { return names[column]; }
+
+    public Class<?> getColumnClass(int column) { return types[column] == Type.INT ? Integer.class : String.class; }
+
+    public boolean isCellEditable(int row, int column) { return false; }
+
+    public Object getValueAt(int row, int column) {
+        switch (types[column]) {
+            case INT: return ints[column][row];
+            case DICT: return dicts[column].value(ints[column][row]);
+            default: return texts[column][row];
+        }
+    }
+
+    int getInt(int row, int column) { return ints[column][row]; }
+
+    /** The row as an Object[] in column order. */
+    Object[] getRow(int row) {
+        Object[] r = new Object[names.length];
+        for (int c = 0; c < r.length; c++) r[c] = getValueAt(row, c);
+        return r;
+    }
+
+    /** Appends the current row of rs (column i of the model = column i + 1 of the select list). Fires no event: for filling a model that is not on screen yet. */
+    void appendRow(ResultSet rs) throws SQLException {
+        ensureCapacity(rows + 1);
+        for (int c = 0; c < types.length; c++) {
+            switch (types[c]) {
+                case INT: ints[c][rows] = rs.getInt(c + 1); break;
+                case DICT: ints[c][rows] = dicts[c].code(rs.getString(c + 1)); break;
+                default: texts[c][rows] = rs.getString(c + 1);
+            }
+        }
+        rows++;
+    }
+
+    void addRow(Object[] values) {
+        ensureCapacity(rows + 1);
+        for (int c = 0; c < types.length; c++) set(c, rows, c < values.length ? values[c] : null);
+        rows++;
+        fireTableRowsInserted(rows - 1, rows - 1);
+    }
+
+    /** Appends every row of other (same columns) with one table event. */
+    void addRows(ColumnarTableModel other) {
+        if (other.rows == 0) return;
+        int first = rows;
+        ensureCapacity(rows + other.rows);
+        for (int c = 0; c < types.length; c++) {
+            switch (types[c]) {
+                case INT: System.arraycopy(other.ints[c], 0, ints[c], rows, other.rows); break;
+                case DICT:
+                    for (int r = 0; r < other.rows; r++) ints[c][rows + r] = dicts[c].code(other.dicts[c].value(other.ints[c][r]));
+                    break;
+                default: System.arraycopy(other.texts[c], 0, texts[c], rows, other.rows);
+            }
+        }
+        rows += other.rows;
+        fireTableRowsInserted(first, rows - 1);
+    }
+
+    /** Row whose first column (the id) is id, or -1. */
+    int rowOfId(int id) {
+        int[] col = ints[0];
+        for (int r = 0; r < rows; r++) if (col[r] == id) return r;
+        return -1;
+    }
+
+    void insertRow(int row, Object[] values) {
+        ensureCapacity(rows + 1);
+        for (int c = 0; c < types.length; c++) {
+            if (texts[c] != null) System.arraycopy(texts[c], row, texts[c], row + 1, rows - row);
+            else System.arraycopy(ints[c], row, ints[c], row + 1, rows - row);
+            set(c, row, c < values.length ? values[c] : null);
+        }
+        rows++;
+        fireTableRowsInserted(row, row);
+    }
+
+    void setRow(int row, Object[] values) {
+        for (int c = 0; c < types.length; c++) set(c, row, c < values.length ? values[c] : null);
+        fireTableRowsUpdated(row, row);
+    }
+
+    void removeRow(int row) {
+        for (int c = 0; c < types.length; c++) {
+            if (texts[c] != null) {
+                System.arraycopy(texts[c], row + 1, texts[c], row, rows - row - 1);
+                texts[c][rows - 1] = null;
+            } else System.arraycopy(ints[c], row + 1, ints[c], row, rows - row - 1);
+        }
+        rows--;
+        fireTableRowsDeleted(row, row);
+    }
+
+    /** Truncates to n rows (setRowCount(0) empties the table); growing is done with addRow. */
+    void setRowCount(int n) {
+        if (n < 0 || n > rows) throw new IllegalArgumentException("Row count " + n + " outside 0.." + rows);
+        if (n == rows) return;
+        int old = rows;
+        for (String[] t : texts) if (t != null) Arrays.fill(t, n, old, null);
+        rows = n;
+        if (n == 0) for (Dictionary d : dicts) if (d != null) d.clear();
+        fireTableRowsDeleted(n, old - 1);
+    }
+
+    private void set(int c, int row, Object v) {
+        switch (types[c]) {
+            case INT: ints[c][row] = v == null ? 0 : v instanceof Number ? ((Number) v).intValue() : Integer.parseInt(v.toString().trim()); break;
+            case DICT: ints[c][row] = dicts[c].code(v == null ? null : v.toString()); break;
+            default: texts[c][row] = v == null ? null : v.toString();
+        }
+    }
+
+    private void ensureCapacity(int n) {
+        int cap = types[0] == Type.TEXT ? texts[0].length : ints[0].length;
+        if (n <= cap) return;
+        int grown = Math.max(n, cap + (cap >> 1));
+        for (int c = 0; c < types.length; c++) {
+            if (texts[c] != null) texts[c] = Arrays.copyOf(texts[c], grown);
+            else ints[c] = Arrays.copyOf(ints[c], grown);
+        }
+    }
+
+    String stats() {
+        StringBuilder sb = new StringBuilder("rows=" + rows);
+        for (int c = 0; c < types.length; c++) {
+            if (dicts[c] != null) sb.append(' ').append(names[c]).append("=").append(dicts[c].size()).append(" distinct");
+        }
+        return sb.toString();
+    }
+
+    // code -1 is null; codes are dense, in order of first appearance
+    private static final class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        int code(String v) {
+            if (v == null) return -1;
+            Integer code = codes.get(v);
+            if (code == null) {
+                code = values.size();
+                values.add(v);
+                codes.put(v, code);
+            }
+            return code;
+        }
+
+        String value(int code) { return code < 0 ? null : values.get(code); }
+
+        int size() { return values.size(); }
+
+        void clear() {
+            values.clear();
+            codes.clear();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+// DBConnectionPool.java
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DBConnectionPool - bounded pool of warm SQLite connections behind DBHelper.getConnection().
+ * - physical connections are opened lazily, up to maxSize, and kept open between calls
+ * - per-connection PRAGMAs are applied once, when the physical connection is opened
+ * - connections are validated on checkout and reset (rollback / autocommit) on return
+ * - each physical connection carries a StatementCache; prepareStatement(sql) goes through it
+ * - callers keep using try-with-resources: close() on the handed-out connection returns it to the pool
+ * - wait time and active / idle counts are tracked so the pool can be sized for several desks
+ *
+ * Pool size: -Dlms.db.poolSize=N (default 4). Checkout timeout: -Dlms.db.poolTimeoutMs=N (default 10000).
+ */
+class DBConnectionPool {
+
+    // applied to every new physical connection (journal_mode=WAL itself is persistent, see DBHelper.applyStorageProfile)
+    static final String[] CONNECTION_PRAGMAS = {
+            "PRAGMA busy_timeout = 5000",
+            "PRAGMA synchronous = NORMAL",     // safe with WAL: only the last commits can be lost on power failure
+            "PRAGMA cache_size = -16000",      // ~16 MB page cache per connection
+            "PRAGMA mmap_size = 268435456",    // map up to 256 MB of the file for reads
+            "PRAGMA temp_store = MEMORY"
+    };
+
+    private final String url;
+    private final int maxSize;
+    private final long timeoutMillis;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<Physical> idle = new LinkedBlockingDeque<>();
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong checkouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    DBConnectionPool(String url, int maxSize, long timeoutMillis) {
+        this.url = url;
+        this.maxSize = Math.max(1, maxSize);
+        this.timeoutMillis = timeoutMillis;
+        this.permits = new Semaphore(this.maxSize, true);
+    }
+
+    Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + timeoutMillis + " ms waiting for a database connection (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", ex);
+        }
+        long waited = System.nanoTime() - start;
+        checkouts.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        try {
+            Physical p;
+            while ((p = idle.pollFirst()) != null) {
+                if (isUsable(p.raw)) break;
+                discard(p);
+            }
+            if (p == null) p = openPhysical();
+            active.incrementAndGet();
+            return wrap(p);
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private Physical openPhysical() throws SQLException {
+        Connection raw = DriverManager.getConnection(url);
+        try (Statement s = raw.createStatement()) {
+            for (String pragma : CONNECTION_PRAGMAS) s.execute(pragma);
+        } catch (SQLException ex) {
+            try { raw.close(); } catch (SQLException ignored) {}
+            throw ex;
+        }
+        open.incrementAndGet();
+        return new Physical(raw);
+    }
+
+    private boolean isUsable(Connection raw) {
+        try {
+            return !raw.isClosed() && raw.isValid(1);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private void discard(Physical p) {
+        discarded.incrementAndGet();
+        p.close();
+    }
+
+    // called when the caller closes its handle
+    private void release(Physical p) {
+        Connection raw = p.raw;
+        try {
+            if (!raw.isClosed()) {
+                if (!raw.getAutoCommit()) {
+                    raw.rollback(); // anything not committed by the caller is abandoned
+                    raw.setAutoCommit(true);
+                }
+                raw.clearWarnings();
+                idle.offerFirst(p); // LIFO keeps the warmest connection (and its statements) in use
+            } else {
+                discard(p);
+            }
+        } catch (SQLException ex) {
+            discard(p);
+        } finally {
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    private Connection wrap(Physical p) {
+        return (Connection) Proxy.newProxyInstance(
+                DBConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledHandle(p));
+    }
+
+    /** Closes idle connections; used on shutdown. Connections still checked out are closed when returned. */
+    void shutdown() {
+        Physical p;
+        while ((p = idle.pollFirst()) != null) p.close();
+    }
+
+    int getMaxSize() { return maxSize; }
+    int getActiveCount() { return active.get(); }
+    int getIdleCount() { return idle.size(); }
+    int getOpenCount() { return open.get(); }
+    long getCheckoutCount() { return checkouts.get(); }
+    long getTimeoutCount() { return timeouts.get(); }
+
+    double getAverageWaitMillis() {
+        long n = checkouts.get();
+        return n == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / n;
+    }
+
+    double getMaxWaitMillis() { return maxWaitNanos.get() / 1_000_000.0; }
+
+    String stats() {
+        return String.format("pool size=%d open=%d active=%d idle=%d checkouts=%d avgWait=%.3fms maxWait=%.3fms timeouts=%d discarded=%d",
+                maxSize, getOpenCount(), getActiveCount(), getIdleCount(), getCheckoutCount(),
+                getAverageWaitMillis(), getMaxWaitMillis(), getTimeoutCount(), discarded.get());
+    }
+
+    /* One open SQLite connection plus its prepared statements. */
+    private final class Physical {
+        final Connection raw;
+        final StatementCache statements;
+
+        Physical(Connection raw) {
+            this.raw = raw;
+            this.statements = new StatementCache(raw);
+        }
+
+        void close() {
+            open.decrementAndGet();
+            statements.closeAll();
+            try { raw.close(); } catch (SQLException ignored) {}
+        }
+    }
+
+    /* Handle given to callers: forwards to the physical connection, except close() and prepareStatement(sql[, keys]). */
+    private final class PooledHandle implements InvocationHandler {
+        private final Physical p;
+        private final Connection raw;
+        private boolean closed;
+
+        PooledHandle(Physical p) {
+            this.p = p;
+            this.raw = p.raw;
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) { closed = true; release(p); }
+                    return null;
+                case "isClosed":
+                    return closed || raw.isClosed();
+                case "prepareStatement":
+                    if (closed) throw new SQLException("Connection has been returned to the pool");
+                    if (args.length == 1) return p.statements.prepare((String) args[0], Statement.NO_GENERATED_KEYS);
+                    if (args.length == 2 && args[1] instanceof Integer) return p.statements.prepare((String) args[0], (Integer) args[1]);
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + raw;
+            }
+            if (closed) throw new SQLException("Connection has been returned to the pool");
+            try {
+                return method.invoke(raw, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
@@ -2,14 +2,21 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.filechooser.FileNameExtensionFilter;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.JTableHeader;
+import javax.swing.table.TableCellRenderer;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import java.io.*;
 import java.sql.*;
 import java.text.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.Vector;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * DashboardPage single-file:
@@ -31,6 +38,7 @@ public class DashboardPage extends JFrame {
 
     public DashboardPage(String role, boolean maximizeOnOpen) {
         System.out.println("DashboardPage constructor called for role: " + role);
+        DBHelper.initialize(); // no-op when OpeningPage already did it
         setTitle("Library Dashboard - " + role.toUpperCase());
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(1000, 700);
@@ -57,8 +65,9 @@ public class DashboardPage extends JFrame {
         gbc.gridy = 1;
         gbc.anchor = GridBagConstraints.CENTER;
 
+        boolean staff = "admin".equalsIgnoreCase(role) || "librarian".equalsIgnoreCase(role);
         JPanel card = new JPanel(new GridBagLayout());
-        card.setPreferredSize(new Dimension(760, 420));
+        card.setPreferredSize(new Dimension(760, ("admin".equalsIgnoreCase(role) ? 560 : 420) + (staff ? 40 : 0)));
         card.setBackground(new Color(255, 255, 255, 230));
         card.setBorder(BorderFactory.createEmptyBorder(16, 16, 16, 16));
         GridBagConstraints c = new GridBagConstraints();
@@ -74,6 +83,11 @@ public class DashboardPage extends JFrame {
         info.setFont(new Font("Segoe UI", Font.PLAIN, 18));
         card.add(info, c);
 
+        if (staff) { // row 2 is free: the buttons start at row 3
+            c.gridy++;
+            card.add(createStatsLabel(), c);
+        }
+
         Font buttonFont = new Font("Segoe UI", Font.BOLD, 18);
         c.gridwidth = 1;
 
@@ -89,9 +103,13 @@ public class DashboardPage extends JFrame {
 
         JButton manageUsersBtn = new JButton("Manage users"); manageUsersBtn.setFont(buttonFont);
         JButton manageLibrariansBtn = new JButton("Manage librarian accounts"); manageLibrariansBtn.setFont(buttonFont);
+        JButton queryPlansBtn = new JButton("Query plans"); queryPlansBtn.setFont(buttonFont);
+        JButton importCatalogBtn = new JButton("Import catalog"); importCatalogBtn.setFont(buttonFont);
+        JButton exportDataBtn = new JButton("Export data"); exportDataBtn.setFont(buttonFont);
 
         JButton issueBtn = new JButton("Issue Books"); issueBtn.setFont(buttonFont);
         JButton returnBtn = new JButton("Return Books"); returnBtn.setFont(buttonFont);
+        JButton overdueBtn = new JButton("Overdue loans"); overdueBtn.setFont(buttonFont);
 
         c.gridy++;
         c.gridx = 0;
@@ -106,11 +124,17 @@ public class DashboardPage extends JFrame {
             c.gridx = 1; card.add(editBooksBtn, c);
 
             c.gridy++; c.gridx = 0; card.add(deleteBooksBtn, c);
-            c.gridx = 1; card.add(Box.createHorizontalStrut(240), c);
+            c.gridx = 1; card.add(queryPlansBtn, c);
 
             c.gridy++; c.gridx = 0; card.add(manageUsersBtn, c);
             c.gridx = 1; card.add(manageLibrariansBtn, c);
 
+            c.gridy++; c.gridx = 0; card.add(importCatalogBtn, c);
+            c.gridx = 1; card.add(exportDataBtn, c);
+
+            c.gridy++; c.gridx = 0; card.add(overdueBtn, c);
+            c.gridx = 1; card.add(Box.createHorizontalStrut(240), c);
+
             c.gridy++; c.gridx = 0; c.gridwidth = 2; card.add(logoutBtn, c);
 
         } else if ("librarian".equalsIgnoreCase(role)) {
@@ -119,7 +143,7 @@ public class DashboardPage extends JFrame {
             c.gridx = 1; card.add(editBooksBtn, c);
 
             c.gridy++; c.gridx = 0; card.add(deleteBooksBtn, c);
-            c.gridx = 1; card.add(Box.createHorizontalStrut(240), c);
+            c.gridx = 1; card.add(overdueBtn, c);
 
             c.gridy++; c.gridx = 0; card.add(issueBtn, c);
             c.gridx = 1; card.add(returnBtn, c);
@@ -152,8 +176,13 @@ public class DashboardPage extends JFrame {
         // open integrated Manage Librarians window
         manageLibrariansBtn.addActionListener(e -> SwingUtilities.invokeLater(() -> new ManageLibrariansWindow()));
 
+        queryPlansBtn.addActionListener(e -> showQueryPlans());
+        importCatalogBtn.addActionListener(e -> CatalogImporter.showDialog(this));
+        exportDataBtn.addActionListener(e -> DataExporter.showDialog(this));
+
         issueBtn.addActionListener(e -> SwingUtilities.invokeLater(() -> new IssueBooksPage()));
         returnBtn.addActionListener(e -> SwingUtilities.invokeLater(() -> new ReturnBooksPage()));
+        overdueBtn.addActionListener(e -> SwingUtilities.invokeLater(() -> new OverdueLoansPage()));
 
         // pass role into SearchBooksPage so Edit opens with correct role
         searchBooksBtn.addActionListener(e -> SwingUtilities.invokeLater(() -> new SearchBooksPage(role)));
@@ -170,20 +199,44 @@ public class DashboardPage extends JFrame {
     }
 
     private JLabel createBackgroundLabel() {
-        ImageIcon raw = new ImageIcon("00.jpg");
-        Image scaled = raw.getImage().getScaledInstance(getWidth() <= 0 ? 1000 : getWidth(), getHeight() <= 0 ? 700 : getHeight(), Image.SCALE_SMOOTH);
-        JLabel background = new JLabel(new ImageIcon(scaled));
+        // shared, pre-scaled 00.jpg; follows resizes by itself
+        JLabel background = BackgroundImageCache.label(this, 1000, 700);
         background.setLayout(new GridBagLayout());
+        return background;
+    }
 
-        // Rescale on resize
-        addComponentListener(new java.awt.event.ComponentAdapter() {
-            public void componentResized(java.awt.event.ComponentEvent evt) {
-                ImageIcon ri = new ImageIcon("00.jpg");
-                Image sc = ri.getImage().getScaledInstance(getWidth(), getHeight(), Image.SCALE_SMOOTH);
-                background.setIcon(new ImageIcon(sc));
+    // LibraryStats numbers; re-read on every DBHelper change event, and each minute for the overdue count
+    private JLabel createStatsLabel() {
+        JLabel label = new JLabel(" ");
+        label.setFont(new Font("Segoe UI", Font.PLAIN, 15));
+        Runnable show = () -> {
+            LibraryStats.Snapshot stats = LibraryStats.snapshot();
+            label.setText(stats == null ? "Counting..." : stats.toString());
+        };
+        DBHelper.ChangeListener onChange = (table, change, id) -> show.run();
+        Timer tick = new Timer(60_000, e -> show.run());
+        label.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) == 0) return;
+            if (label.isDisplayable()) {
+                DBHelper.addChangeListener(onChange);
+                tick.start();
+                show.run();
+            } else {
+                DBHelper.removeChangeListener(onChange);
+                tick.stop();
             }
         });
-        return background;
+        show.run();
+        return label;
+    }
+
+    // admin: EXPLAIN QUERY PLAN of every DBHelper query, to check index usage
+    private void showQueryPlans() {
+        JTextArea area = new JTextArea(DBHelper.explainQueryPlans(), 30, 90);
+        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        area.setEditable(false);
+        area.setCaretPosition(0);
+        JOptionPane.showMessageDialog(this, new JScrollPane(area), "Query plans", JOptionPane.INFORMATION_MESSAGE);
     }
 
     private void openOrMessage(String className, String message) {
@@ -205,80 +258,189 @@ public class DashboardPage extends JFrame {
 class DBHelper {
     private static final String DB_URL = "jdbc:sqlite:library.db";
 
-    static void initialize() {
+    // warm connections shared by every helper below (size: -Dlms.db.poolSize)
+    private static final DBConnectionPool POOL = new DBConnectionPool(DB_URL,
+            Integer.getInteger("lms.db.poolSize", 4), Long.getLong("lms.db.poolTimeoutMs", 10_000L));
+
+    // periodic WAL checkpoints (interval: -Dlms.db.checkpointSeconds)
+    private static final WalCheckpointer CHECKPOINTER = new WalCheckpointer("library.db",
+            Long.getLong("lms.db.checkpointSeconds", 60L));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            CHECKPOINTER.stop();
+            CHECKPOINTER.checkpoint("TRUNCATE");
+            System.out.println("DB " + CHECKPOINTER.stats());
+            System.out.println("DB " + POOL.stats());
+            System.out.println("DB " + StatementCache.stats());
+            System.out.println("DB " + CatalogCache.stats());
+            System.out.println("DB " + PatronCache.stats());
+            System.out.println("DB " + AvailabilityLedger.stats());
+            System.out.println("DB " + LibraryStats.stats());
+            System.out.println("DB " + OverdueScanner.stats());
+            POOL.shutdown();
+        }, "db-pool-shutdown"));
+    }
+
+    private static boolean initialized;
+
+    // Storage profile + schema migrations (see SchemaMigrator). Cheap after the first call.
+    static synchronized void initialize() {
+        if (initialized) return;
+        initialized = true;
         try { Class.forName("org.sqlite.JDBC"); } catch (Exception ignored) {}
-        createBooksTableIfNotExists();
-        createUsersTableIfNotExists();
-        createLibrariansTableIfNotExists(); // make sure librarians table exists
-        createIssuesTableIfNotExists(); // create issues table
-        insertSampleBooksIfEmpty();
+        applyStorageProfile();
+        int fromVersion = SchemaMigrator.latestVersion();
+        try (Connection c = getConnection()) {
+            fromVersion = SchemaMigrator.migrate(c);
+            PatronCache.load(c);
+        } catch (SQLException ex) { ex.printStackTrace(); }
+        if (fromVersion == 0) insertSampleBooksIfEmpty(); // new or pre-migrator database
+        try (Connection c = getConnection()) {
+            AvailabilityLedger.load(c);
+        } catch (SQLException ex) { ex.printStackTrace(); }
+        LibraryStats.load();
+        OverdueScanner.start();
     }
 
     // Insert sample books if table is empty
     private static void insertSampleBooksIfEmpty() {
         String countSql = "SELECT COUNT(*) FROM books;";
-        try (Connection c = getConnection(); Statement s = c.createStatement(); ResultSet rs = s.executeQuery(countSql)) {
-            if (rs.next() && rs.getInt(1) == 0) {
-                // Insert 8 sample books first
-                insertBook("978-0-123456-78-9", "Java Programming", "John Doe", "Programming", "Tech Books Inc", "2020", "1st Edition", 5, 5);
-                insertBook("978-0-987654-32-1", "Data Structures", "Jane Smith", "Computer Science", "Academic Press", "2019", "2nd Edition", 3, 3);
-                insertBook("978-0-111111-11-1", "Database Management", "Bob Johnson", "Databases", "DB Publishers", "2021", "1st Edition", 4, 4);
-                insertBook("978-0-222222-22-2", "Algorithms", "Alice Brown", "Computer Science", "Algo Press", "2018", "3rd Edition", 2, 2);
-                insertBook("978-0-333333-33-3", "Web Development", "Charlie Wilson", "Web", "Web Books Ltd", "2022", "1st Edition", 6, 6);
-                insertBook("978-0-444444-44-4", "Machine Learning", "David Lee", "AI", "AI Books Co", "2023", "1st Edition", 3, 3);
-                insertBook("978-0-555555-55-5", "History of Computing", "Eva Green", "History", "History Press", "2017", "2nd Edition", 4, 4);
-                insertBook("978-0-666666-66-6", "Python Basics", "Frank White", "Programming", "Code Publishers", "2021", "Revised Edition", 5, 5);
-
-                // Insert 100 more books programmatically
-                String[] categories = {"Fiction", "Non-Fiction", "Science", "Mathematics", "History", "Technology", "Biography", "Children", "Other"};
-                String[] authors = {"Author A", "Author B", "Author C", "Author D", "Author E", "Author F", "Author G", "Author H", "Author I", "Author J"};
-                String[] publishers = {"Publisher X", "Publisher Y", "Publisher Z", "Publisher W", "Publisher V"};
-                for (int i = 9; i <= 108; i++) {
-                    String isbn = "978-0-" + String.format("%06d", i) + "-" + String.format("%02d", i % 100) + "-" + String.format("%01d", i % 10);
-                    String title = "Book " + i;
-                    String author = authors[i % authors.length];
-                    String category = categories[i % categories.length];
-                    String publisher = publishers[i % publishers.length];
-                    String year = String.valueOf(2000 + (i % 25));
-                    String edition = (i % 3 + 1) + "st Edition";
-                    int quantity = 2 + (i % 5);
-                    int available = quantity;
-                    insertBook(isbn, title, author, category, publisher, year, edition, quantity, available);
-                }
-                System.out.println("Sample books inserted into database.");
-            }
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(countSql); ResultSet rs = ps.executeQuery()) {
+            if (!rs.next() || rs.getInt(1) != 0) return;
+        } catch (SQLException ex) { ex.printStackTrace(); return; }
+
+        List<BookRow> rows = new ArrayList<>();
+        // 8 sample books first
+        rows.add(new BookRow("978-0-123456-78-9", "Java Programming", "John Doe", "Programming", "Tech Books Inc", "2020", "1st Edition", 5, 5));
+        rows.add(new BookRow("978-0-987654-32-1", "Data Structures", "Jane Smith", "Computer Science", "Academic Press", "2019", "2nd Edition", 3, 3));
+        rows.add(new BookRow("978-0-111111-11-1", "Database Management", "Bob Johnson", "Databases", "DB Publishers", "2021", "1st Edition", 4, 4));
+        rows.add(new BookRow("978-0-222222-22-2", "Algorithms", "Alice Brown", "Computer Science", "Algo Press", "2018", "3rd Edition", 2, 2));
+        rows.add(new BookRow("978-0-333333-33-3", "Web Development", "Charlie Wilson", "Web", "Web Books Ltd", "2022", "1st Edition", 6, 6));
+        rows.add(new BookRow("978-0-444444-44-4", "Machine Learning", "David Lee", "AI", "AI Books Co", "2023", "1st Edition", 3, 3));
+        rows.add(new BookRow("978-0-555555-55-5", "History of Computing", "Eva Green", "History", "History Press", "2017", "2nd Edition", 4, 4));
+        rows.add(new BookRow("978-0-666666-66-6", "Python Basics", "Frank White", "Programming", "Code Publishers", "2021", "Revised Edition", 5, 5));
+
+        // 100 more books programmatically
+        String[] categories = {"Fiction", "Non-Fiction", "Science", "Mathematics", "History", "Technology", "Biography", "Children", "Other"};
+        String[] authors = {"Author A", "Author B", "Author C", "Author D", "Author E", "Author F", "Author G", "Author H", "Author I", "Author J"};
+        String[] publishers = {"Publisher X", "Publisher Y", "Publisher Z", "Publisher W", "Publisher V"};
+        for (int i = 9; i <= 108; i++) {
+            String isbn = "978-0-" + String.format("%06d", i) + "-" + String.format("%02d", i % 100) + "-" + String.format("%01d", i % 10);
+            String title = "Book " + i;
+            String author = authors[i % authors.length];
+            String category = categories[i % categories.length];
+            String publisher = publishers[i % publishers.length];
+            String year = String.valueOf(2000 + (i % 25));
+            String edition = (i % 3 + 1) + "st Edition";
+            int quantity = 2 + (i % 5);
+            int available = quantity;
+            rows.add(new BookRow(isbn, title, author, category, publisher, year, edition, quantity, available));
+        }
+        if (!insertBooksBatch(rows).isEmpty()) System.out.println("Sample books inserted into database.");
+    }
+
+    // Startup storage profile: WAL so readers and the single writer don't block each other.
+    // journal_mode is stored in the file; the per-connection PRAGMAs live in DBConnectionPool.
+    private static void applyStorageProfile() {
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement("PRAGMA journal_mode = WAL"); ResultSet rs = ps.executeQuery()) {
+            String mode = rs.next() ? rs.getString(1) : "?";
+            if (!"wal".equalsIgnoreCase(mode)) System.out.println("Warning: journal_mode is " + mode + ", WAL not available.");
         } catch (SQLException ex) { ex.printStackTrace(); }
+        CHECKPOINTER.start();
+    }
+
+    // prepared-statement cache hit/miss counters (see StatementCache)
+    public static String getStatementCacheStats() {
+        return StatementCache.stats();
     }
 
+    // EXPLAIN QUERY PLAN for every DBHelper query (admin "Query plans" action)
+    public static String explainQueryPlans() {
+        try (Connection c = getConnection()) {
+            return SchemaIndexes.explainAll(c);
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            return "Cannot open database: " + ex.getMessage();
+        }
+    }
+
+    // checkpoint duration and WAL size
+    public static String getWalStats() {
+        return CHECKPOINTER.stats();
+    }
+
+    // Pooled connection: close() hands it back to the pool instead of closing the file
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL);
+        return POOL.borrow();
     }
 
-    // Books table
-    public static void createBooksTableIfNotExists() {
-        String sql = "CREATE TABLE IF NOT EXISTS books (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "isbn TEXT NOT NULL," +
-                "title TEXT NOT NULL," +
-                "author TEXT NOT NULL," +
-                "category TEXT," +
-                "publisher TEXT," +
-                "publish_year TEXT," +
-                "edition TEXT," +
-                "quantity INTEGER DEFAULT 0," +
-                "available INTEGER DEFAULT 0" +
-                ");";
-        try (Connection c = getConnection(); Statement s = c.createStatement()) {
-            s.execute(sql);
+    // pool wait time and active/idle counts, for sizing the pool
+    public static String getPoolStats() {
+        return POOL.stats();
+    }
+
+    // ---------- change events ----------
+    // Single-row writes below publish one event per row they touched, after commit; listeners run on the EDT.
+    // Open tables apply them in place (TableSync, LazyBooksTableModel.applyChange) instead of reloading.
+    // Bulk loads (sample seeding, catalog import) publish nothing: refresh to see them.
+    enum Change { INSERT, UPDATE, DELETE }
+
+    interface ChangeListener {
+        void rowChanged(String table, Change change, int id); // table: "books", "users", "librarians" or "issues"
+    }
+
+    private static final CopyOnWriteArrayList<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    static void addChangeListener(ChangeListener l) { changeListeners.addIfAbsent(l); }
+
+    static void removeChangeListener(ChangeListener l) { changeListeners.remove(l); }
+
+    private static void publish(String table, Change change, int id) {
+        if (changeListeners.isEmpty()) return;
+        SwingUtilities.invokeLater(() -> {
+            for (ChangeListener l : changeListeners) l.rowChanged(table, change, id);
+        });
+    }
+
+    // id of the row just inserted on this connection
+    private static int lastInsertId(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT last_insert_rowid()"); ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // One row of a listing, in the columns of its TableModel (for applying an event); null if it is gone
+    static Object[] loadListingRow(String table, int id) {
+        ColumnarTableModel m;
+        String sql;
+        switch (table) {
+            case "books": m = newBooksTableModel(); sql = SQL_BOOK_BY_ID; break;
+            case "users": m = newUsersTableModel(); sql = SQL_USER_ROW_BY_ID; break;
+            case "librarians": m = newLibrariansTableModel(); sql = SQL_LIBRARIAN_ROW_BY_ID; break;
+            case "issues": m = newIssuesTableModel(); sql = SQL_ISSUE_BY_ID; break;
+            default: throw new IllegalArgumentException("Unknown table " + table);
+        }
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) m.appendRow(rs);
+            }
         } catch (SQLException ex) { ex.printStackTrace(); }
+        return m.getRowCount() == 0 ? null : m.getRow(0);
     }
 
+    static final String SQL_USER_ROW_BY_ID = "SELECT id, full_name, username, email, phone, role, status, date_created, last_login FROM users WHERE id = ?";
+    static final String SQL_LIBRARIAN_ROW_BY_ID = "SELECT id, full_name, username, email, phone, date_joining, status FROM librarians WHERE id = ?";
+
+    // Books table
+    static final String SQL_INSERT_BOOK = "INSERT INTO books (isbn, title, author, category, publisher, publish_year, edition, quantity, available) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?);";
+
     public static boolean insertBook(String isbn, String title, String author, String category,
                                      String publisher, String publishYear, String edition,
                                      int quantity, int available) {
-        String sql = "INSERT INTO books (isbn, title, author, category, publisher, publish_year, edition, quantity, available) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?);";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(SQL_INSERT_BOOK)) {
             ps.setString(1, isbn);
             ps.setString(2, title);
             ps.setString(3, author);
@@ -289,16 +451,126 @@ class DBHelper {
             ps.setInt(8, quantity);
             ps.setInt(9, available);
             ps.executeUpdate();
+            CatalogCache.invalidateIsbn(isbn);
+            LibraryStats.bookAdded(quantity, available);
+            publish("books", Change.INSERT, lastInsertId(c));
             return true;
         } catch (SQLException ex) { ex.printStackTrace(); return false; }
     }
 
+    // One books row for bulk loads (seeding, catalog import)
+    static final class BookRow {
+        final String isbn, title, author, category, publisher, publishYear, edition;
+        final int quantity, available;
+
+        BookRow(String isbn, String title, String author, String category, String publisher,
+                String publishYear, String edition, int quantity, int available) {
+            this.isbn = isbn; this.title = title; this.author = author; this.category = category;
+            this.publisher = publisher; this.publishYear = publishYear; this.edition = edition;
+            this.quantity = quantity; this.available = available;
+        }
+
+        void bind(PreparedStatement ps) throws SQLException {
+            ps.setString(1, isbn);
+            ps.setString(2, title);
+            ps.setString(3, author);
+            ps.setString(4, category);
+            ps.setString(5, publisher);
+            ps.setString(6, publishYear);
+            ps.setString(7, edition);
+            ps.setInt(8, quantity);
+            ps.setInt(9, available);
+        }
+    }
+
+    // rows per executeBatch in bulk loads (-Dlms.db.batchSize)
+    static final int BATCH_SIZE = Integer.getInteger("lms.db.batchSize", 500);
+
+    public static List<Integer> insertBooksBatch(Iterable<BookRow> books) {
+        return insertBooksBatch(books, BATCH_SIZE);
+    }
+
+    // Bulk insert: one connection, one transaction, addBatch/executeBatch per chunk.
+    // Returns the generated ids in input order, or an empty list if nothing was committed.
+    public static List<Integer> insertBooksBatch(Iterable<BookRow> books, int chunkSize) {
+        int chunk = Math.max(1, chunkSize);
+        List<Integer> ids = new ArrayList<>();
+        long copies = 0, available = 0;
+        try (Connection c = getConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement(SQL_INSERT_BOOK)) {
+                int pending = 0;
+                for (BookRow b : books) {
+                    b.bind(ps);
+                    copies += b.quantity;
+                    available += b.available;
+                    ps.addBatch();
+                    if (++pending == chunk) { flushBookBatch(c, ps, pending, ids); pending = 0; }
+                }
+                if (pending > 0) flushBookBatch(c, ps, pending, ids);
+            }
+            c.commit();
+            CatalogCache.clear();
+            LibraryStats.booksAdded(ids.size(), copies, available);
+            return ids;
+        } catch (SQLException ex) { ex.printStackTrace(); return new ArrayList<>(); }
+    }
+
+    // books.id is AUTOINCREMENT and we hold the write lock, so one chunk gets consecutive ids ending at last_insert_rowid()
+    private static void flushBookBatch(Connection c, PreparedStatement ps, int count, List<Integer> ids) throws SQLException {
+        ps.executeBatch();
+        try (PreparedStatement last = c.prepareStatement("SELECT last_insert_rowid()"); ResultSet rs = last.executeQuery()) {
+            int lastId = rs.next() ? rs.getInt(1) : 0;
+            for (int id = lastId - count + 1; id <= lastId; id++) ids.add(id);
+        }
+    }
+
+    // catalog import: refresh an existing ISBN; available moves with quantity so copies on loan stay accounted for
+    static final String SQL_UPDATE_BOOK_BY_ISBN = "UPDATE books SET title=?, author=?, category=?, publisher=?, publish_year=?, edition=?, " +
+            "available=MAX(0, available + ? - quantity), quantity=? WHERE isbn=?;";
+
+    // Upsert by ISBN on the caller's connection and transaction (used by CatalogImporter's writer).
+    // One batched UPDATE for all rows, then one batched INSERT for the rows that matched nothing.
+    // Returns {inserted, updated}. The caller clears CatalogCache after its commit.
+    static int[] upsertBooksByIsbn(Connection c, List<BookRow> rows) throws SQLException {
+        int updated = 0;
+        int[] counts;
+        try (PreparedStatement ps = c.prepareStatement(SQL_UPDATE_BOOK_BY_ISBN)) {
+            for (BookRow b : rows) {
+                ps.setString(1, b.title);
+                ps.setString(2, b.author);
+                ps.setString(3, b.category);
+                ps.setString(4, b.publisher);
+                ps.setString(5, b.publishYear);
+                ps.setString(6, b.edition);
+                ps.setInt(7, b.quantity);
+                ps.setInt(8, b.quantity);
+                ps.setString(9, b.isbn);
+                ps.addBatch();
+            }
+            counts = ps.executeBatch();
+        }
+        int inserted = 0;
+        try (PreparedStatement ps = c.prepareStatement(SQL_INSERT_BOOK)) {
+            for (int i = 0; i < rows.size(); i++) {
+                if (counts[i] > 0) { updated++; continue; }
+                rows.get(i).bind(ps);
+                ps.addBatch();
+                inserted++;
+            }
+            if (inserted > 0) ps.executeBatch();
+        }
+        return new int[]{inserted, updated};
+    }
+
+    static final String SQL_UPDATE_BOOK = "UPDATE books SET isbn=?, title=?, author=?, category=?, publisher=?, publish_year=?, edition=?, quantity=?, available=? WHERE id=?;";
+
     // Update book by ID
     public static boolean updateBook(int id, String isbn, String title, String author, String category,
                                      String publisher, String publishYear, String edition,
                                      int quantity, int available) {
-        String sql = "UPDATE books SET isbn=?, title=?, author=?, category=?, publisher=?, publish_year=?, edition=?, quantity=?, available=? WHERE id=?;";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(SQL_UPDATE_BOOK)) {
+            int[] before = bookCounts(c, id);
             ps.setString(1, isbn);
             ps.setString(2, title);
             ps.setString(3, author);
@@ -310,25 +582,67 @@ class DBHelper {
             ps.setInt(9, available);
             ps.setInt(10, id);
             int updated = ps.executeUpdate();
+            CatalogCache.invalidate(id);
+            AvailabilityLedger.forget(id); // quantity / available edited: the next checkout sets it again
+            if (updated > 0 && before != null) LibraryStats.bookChanged(quantity - before[0], available - before[1]);
+            if (updated > 0) publish("books", Change.UPDATE, id);
             return updated > 0;
         } catch (SQLException ex) { ex.printStackTrace(); return false; }
     }
 
+    static final String SQL_DELETE_BOOK = "DELETE FROM books WHERE id = ?;";
+
     // Delete book by id
     public static boolean deleteBookById(int id) {
-        String sql = "DELETE FROM books WHERE id = ?;";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(SQL_DELETE_BOOK)) {
+            int[] before = bookCounts(c, id);
             ps.setInt(1, id);
             int affected = ps.executeUpdate();
+            CatalogCache.invalidate(id);
+            AvailabilityLedger.forget(id);
+            if (affected > 0 && before != null) LibraryStats.bookRemoved(before[0], before[1]);
+            if (affected > 0) publish("books", Change.DELETE, id);
             return affected > 0;
         } catch (SQLException ex) { ex.printStackTrace(); return false; }
     }
 
-    // get book by id (returns Object array) or null
+    static final String SQL_BOOK_COUNTS = "SELECT quantity, available FROM books WHERE id = ?;";
+
+    // {quantity, available} just before an edit or delete, for LibraryStats (a checkout in between is drift it corrects)
+    private static int[] bookCounts(Connection c, int id) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(SQL_BOOK_COUNTS)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) { return rs.next() ? new int[]{rs.getInt(1), rs.getInt(2)} : null; }
+        }
+    }
+
+    static final String SQL_BOOK_BY_ID = "SELECT id, isbn, title, author, category, publisher, publish_year, edition, quantity, available FROM books WHERE id = ? LIMIT 1;";
+
+    // get book by id (returns Object array) or null; served from CatalogCache when it holds the row
     public static Object[] getBookById(int id) {
-        String sql = "SELECT id, isbn, title, author, category, publisher, publish_year, edition, quantity, available FROM books WHERE id = ? LIMIT 1;";
+        Object[] cached = CatalogCache.get(id);
+        if (cached != null) return cached;
+        long readAt = CatalogCache.generation();
+        Object[] book = readBook(SQL_BOOK_BY_ID, id);
+        CatalogCache.put(book, readAt);
+        return book;
+    }
+
+    static final String SQL_BOOK_BY_ISBN = "SELECT id, isbn, title, author, category, publisher, publish_year, edition, quantity, available FROM books WHERE isbn = ? LIMIT 1;";
+
+    // get book by ISBN; served from CatalogCache when it holds the row
+    public static Object[] getBookByISBN(String isbn) {
+        Object[] cached = CatalogCache.getByIsbn(isbn);
+        if (cached != null) return cached;
+        long readAt = CatalogCache.generation();
+        Object[] book = readBook(SQL_BOOK_BY_ISBN, isbn);
+        if (isbn != null) CatalogCache.putIsbn(isbn, book, readAt);
+        return book;
+    }
+
+    private static Object[] readBook(String sql, Object key) {
         try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setInt(1, id);
+            ps.setObject(1, key);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
                     return new Object[]{
@@ -349,103 +663,530 @@ class DBHelper {
         return null;
     }
 
-    // get book by ISBN
-    public static Object[] getBookByISBN(String isbn) {
-        String sql = "SELECT id, isbn, title, author, category, publisher, publish_year, edition, quantity, available FROM books WHERE isbn = ? LIMIT 1;";
+    // ---------- keyset pages (newest first) ----------
+    // A page token is "<listing>:<last id shown>"; callers treat it as opaque and hand it back for the next page.
+    // "WHERE id < ? ORDER BY id DESC LIMIT ?" seeks straight into the rowid b-tree, so page 1000 costs the same as page 1.
+
+    // rows per page when the caller does not say (-Dlms.ui.pageSize)
+    public static final int PAGE_SIZE = Integer.getInteger("lms.ui.pageSize", 200);
+
+    static final String[] BOOK_COLUMNS = {"Book ID", "ISBN", "Title", "Author", "Category", "Publisher", "Year", "Edition", "Quantity", "Available"};
+    static final String[] USER_COLUMNS = {"User ID", "Full Name", "Username", "Email", "Phone", "Role", "Status", "Date Created", "Last Login"};
+    static final String[] LIBRARIAN_COLUMNS = {"ID", "Full Name", "Username", "Email", "Phone", "Joining Date", "Status"};
+    static final String[] ISSUE_COLUMNS = {"Issue ID", "Book ID", "Book Title", "User ID", "User Name", "Issue Date", "Due Date", "Return Date", "Late Days", "Issued By", "Remarks"};
+
+    // storage per column (ColumnarTableModel): ints unboxed, repeated values dictionary-encoded, the rest as plain strings
+    private static final ColumnarTableModel.Type INT = ColumnarTableModel.Type.INT, TEXT = ColumnarTableModel.Type.TEXT, DICT = ColumnarTableModel.Type.DICT;
+    static final ColumnarTableModel.Type[] BOOK_TYPES = {INT, TEXT, TEXT, DICT, DICT, DICT, DICT, DICT, INT, INT};
+    static final ColumnarTableModel.Type[] USER_TYPES = {INT, TEXT, TEXT, TEXT, TEXT, DICT, DICT, TEXT, TEXT};
+    static final ColumnarTableModel.Type[] LIBRARIAN_TYPES = {INT, TEXT, TEXT, TEXT, TEXT, DICT, DICT};
+    static final ColumnarTableModel.Type[] ISSUE_TYPES = {INT, INT, DICT, INT, DICT, DICT, DICT, DICT, INT, DICT, TEXT}; // remarks: free text
+
+    static final String SQL_BOOKS_PAGE = "SELECT id, isbn, title, author, category, publisher, publish_year, edition, quantity, available FROM books WHERE id < ? ORDER BY id DESC LIMIT ?";
+    static final String SQL_USERS_SELECT = "SELECT id, full_name, username, email, phone, role, status, date_created, last_login FROM users";
+    static final String SQL_USERS_PAGE = SQL_USERS_SELECT + " WHERE id < ? ORDER BY id DESC LIMIT ?";
+    static final String SQL_LIBRARIANS_PAGE = "SELECT id, full_name, username, email, phone, date_joining, status FROM librarians WHERE id < ? ORDER BY id DESC LIMIT ?";
+    static final String SQL_ISSUES_SELECT = "SELECT id, book_id, book_title, user_id, user_name, issue_date, due_date, return_date, late_days, issued_by, remarks FROM issues";
+    static final String SQL_ISSUES_PAGE = SQL_ISSUES_SELECT + " WHERE id < ? ORDER BY id DESC LIMIT ?";
+
+    // every listing below selects its columns in this order, so rows load with ColumnarTableModel.appendRow
+    public static ColumnarTableModel newBooksTableModel() { return new ColumnarTableModel(BOOK_COLUMNS, BOOK_TYPES); }
+    public static ColumnarTableModel newUsersTableModel() { return new ColumnarTableModel(USER_COLUMNS, USER_TYPES); }
+    public static ColumnarTableModel newLibrariansTableModel() { return new ColumnarTableModel(LIBRARIAN_COLUMNS, LIBRARIAN_TYPES); }
+    public static ColumnarTableModel newIssuesTableModel() { return new ColumnarTableModel(ISSUE_COLUMNS, ISSUE_TYPES); }
+
+    // Each loadXxxPage appends one page to 'into' and returns the next page token (null = no more rows, or an error).
+    // Pass null as the token for the first page.
+    public static String loadBooksPage(ColumnarTableModel into, String pageToken) { return loadBooksPage(into, pageToken, PAGE_SIZE); }
+    public static String loadBooksPage(ColumnarTableModel into, String pageToken, int pageSize) {
+        return loadPage("books", SQL_BOOKS_PAGE, into, pageToken, pageSize);
+    }
+
+    public static String loadUsersPage(ColumnarTableModel into, String pageToken) { return loadUsersPage(into, pageToken, PAGE_SIZE); }
+    public static String loadUsersPage(ColumnarTableModel into, String pageToken, int pageSize) {
+        return loadPage("users", SQL_USERS_PAGE, into, pageToken, pageSize);
+    }
+
+    // users in the order of model column sortColumn (USER_SORT), still one keyset page at a time
+    public static String loadUsersPage(ColumnarTableModel into, String pageToken, int sortColumn, boolean ascending) {
+        if (sortColumn < 0 || (sortColumn == 0 && !ascending)) return loadUsersPage(into, pageToken); // newest first
+        return loadSortedPage("users", SQL_USERS_SELECT, null, new Object[0], USER_SORT, USER_TYPES, sortColumn, ascending, into, pageToken, PAGE_SIZE);
+    }
+
+    public static String loadLibrariansPage(ColumnarTableModel into, String pageToken) { return loadLibrariansPage(into, pageToken, PAGE_SIZE); }
+    public static String loadLibrariansPage(ColumnarTableModel into, String pageToken, int pageSize) {
+        return loadPage("librarians", SQL_LIBRARIANS_PAGE, into, pageToken, pageSize);
+    }
+
+    public static String loadIssuesPage(ColumnarTableModel into, String pageToken) { return loadIssuesPage(into, pageToken, PAGE_SIZE); }
+    public static String loadIssuesPage(ColumnarTableModel into, String pageToken, int pageSize) {
+        return loadPage("issues", SQL_ISSUES_PAGE, into, pageToken, pageSize);
+    }
+
+    // issues in the order of model column sortColumn (ISSUE_SORT), still one keyset page at a time
+    public static String loadIssuesPage(ColumnarTableModel into, String pageToken, int sortColumn, boolean ascending) {
+        if (sortColumn < 0 || (sortColumn == 0 && !ascending)) return loadIssuesPage(into, pageToken); // newest first
+        return loadSortedPage("issues", SQL_ISSUES_SELECT, null, new Object[0], ISSUE_SORT, ISSUE_TYPES, sortColumn, ascending, into, pageToken, PAGE_SIZE);
+    }
+
+    // open loans past their due date, most overdue first, with late days as of the last OverdueScanner run
+    static final String SQL_OVERDUE_SELECT = "SELECT id, book_id, book_title, user_id, user_name, issue_date, due_date, return_date, current_late_days, issued_by, remarks FROM issues";
+    static final String SQL_OVERDUE_FILTER = "return_date IS NULL AND due_date < ?";
+
+    // one page of the overdue set: a range of idx_issues_open_due
+    public static String loadOverduePage(ColumnarTableModel into, String pageToken) {
+        return loadSortedPage("overdue", SQL_OVERDUE_SELECT, SQL_OVERDUE_FILTER, new Object[]{java.time.LocalDate.now().toString()},
+                ISSUE_SORT, ISSUE_TYPES, 6, true, into, pageToken, PAGE_SIZE);
+    }
+
+    // ---------- one borrower's history ----------
+    enum IssueStatus { ALL, OPEN, RETURNED, OVERDUE }
+
+    // usernamePrefix matches username or full name from the start, case-insensitively, as a range on the NOCASE indexes
+    static final String SQL_USER_IDS_BY_PREFIX = "SELECT id FROM users WHERE username COLLATE NOCASE >= ? AND username COLLATE NOCASE < ? " +
+            "OR full_name COLLATE NOCASE >= ? AND full_name COLLATE NOCASE < ?";
+
+    /**
+     * One page of the issues of userId, or (userId null) of every user whose username or full name starts with
+     * usernamePrefix; latest issue date first. from / to (yyyy-MM-dd, inclusive) bound the issue date and may be null.
+     * Reads through idx_issues_user_date, so the cost follows the size of that history, not of the issues table.
+     * Returns the next page token, or null on the last page.
+     */
+    public static String getIssuesForUser(ColumnarTableModel into, Integer userId, String usernamePrefix, IssueStatus status,
+                                          String from, String to, String pageToken) {
+        List<String> where = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (userId != null) {
+            where.add("user_id = ?");
+            params.add(userId);
+        } else {
+            String p = usernamePrefix == null ? "" : usernamePrefix.trim();
+            if (p.isEmpty()) throw new IllegalArgumentException("A user id or username prefix is required");
+            where.add("user_id IN (" + SQL_USER_IDS_BY_PREFIX + ")");
+            String end = p + Character.MAX_VALUE;
+            params.addAll(Arrays.asList(p, end, p, end));
+        }
+        if (status == IssueStatus.OPEN) where.add("return_date IS NULL");
+        else if (status == IssueStatus.RETURNED) where.add("return_date IS NOT NULL");
+        else if (status == IssueStatus.OVERDUE) {
+            where.add("return_date IS NULL AND due_date < ?");
+            params.add(java.time.LocalDate.now().toString());
+        }
+        if (from != null && !from.isEmpty()) {
+            where.add("issue_date >= ?");
+            params.add(from);
+        }
+        if (to != null && !to.isEmpty()) {
+            where.add("issue_date <= ?");
+            params.add(to);
+        }
+        return loadSortedPage("user-issues", SQL_ISSUES_SELECT, String.join(" AND ", where), params.toArray(),
+                ISSUE_SORT, ISSUE_TYPES, 5, false, into, pageToken, PAGE_SIZE);
+    }
+
+    static String loadPage(String listing, String sql, ColumnarTableModel into, String pageToken, int pageSize) {
+        long before = pageTokenId(listing, pageToken);
         try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, isbn);
+            ps.setLong(1, before);
+            ps.setInt(2, pageSize + 1); // one row more than asked tells whether there is a next page
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return new Object[]{
-                            rs.getInt("id"),
-                            rs.getString("isbn"),
-                            rs.getString("title"),
-                            rs.getString("author"),
-                            rs.getString("category"),
-                            rs.getString("publisher"),
-                            rs.getString("publish_year"),
-                            rs.getString("edition"),
-                            rs.getInt("quantity"),
-                            rs.getInt("available")
-                    };
+                int n = 0;
+                while (rs.next()) {
+                    if (n++ == pageSize) return listing + ":" + before;
+                    before = rs.getLong(1);
+                    into.appendRow(rs);
                 }
             }
         } catch (SQLException ex) { ex.printStackTrace(); }
         return null;
     }
 
-    public static DefaultTableModel getAllBooksTableModel() {
-        String[] cols = {"Book ID", "ISBN", "Title", "Author", "Category", "Publisher", "Year", "Edition", "Quantity", "Available"};
-        DefaultTableModel model = new DefaultTableModel(cols, 0) { public boolean isCellEditable(int row, int column) { return false; } };
-        String sql = "SELECT id, isbn, title, author, category, publisher, publish_year, edition, quantity, available FROM books ORDER BY id DESC";
-        try (Connection c = getConnection(); Statement s = c.createStatement(); ResultSet rs = s.executeQuery(sql)) {
-            while (rs.next()) {
-                Vector<Object> row = new Vector<>();
-                row.add(rs.getInt("id"));
-                row.add(rs.getString("isbn"));
-                row.add(rs.getString("title"));
-                row.add(rs.getString("author"));
-                row.add(rs.getString("category"));
-                row.add(rs.getString("publisher"));
-                row.add(rs.getString("publish_year"));
-                row.add(rs.getString("edition"));
-                row.add(rs.getInt("quantity"));
-                row.add(rs.getInt("available"));
-                model.addRow(row);
+    // ---------- header-click sorting ----------
+    // The ORDER BY column behind each model column, or null where no index backs it (header clicks there do nothing).
+    // Only these names ever reach SQL text; callers pass a model column index.
+    static final String[] BOOK_SORT = {"id", "isbn", "title", "author", "category", null, "publish_year", null, null, null};
+    static final String[] ISSUE_SORT = {"id", null, null, "user_id", null, "issue_date", "due_date", "return_date", null, null, null};
+    // username is UNIQUE, email / phone have SchemaIndexes indexes; full_name's index is NOCASE, which a keyset cannot seek in
+    static final String[] USER_SORT = {"id", null, "username", "email", "phone", null, null, null, null};
+
+    static boolean sortable(String[] sortColumns, int column) {
+        return column >= 0 && column < sortColumns.length && sortColumns[column] != null;
+    }
+
+    // " ORDER BY title ASC, id ASC": id breaks ties, so the order is total and keyset paging is exact
+    static String orderBy(String[] sortColumns, int column, boolean ascending, String alias) {
+        if (!sortable(sortColumns, column)) throw new IllegalArgumentException("Column " + column + " is not sortable");
+        String x = sortColumns[column];
+        String dir = ascending ? " ASC" : " DESC";
+        return " ORDER BY " + alias + x + dir + (x.equals("id") ? "" : ", " + alias + "id" + dir);
+    }
+
+    // One phase of a sorted keyset page. Non-NULL values page on "x IS NOT NULL AND (x, id) > (?, ?)", which seeks in the
+    // index on x (the IS NOT NULL lets a partial index such as idx_issues_return_date serve it too).
+    // NULLs (first ascending, last descending, as SQLite sorts them) page on id alone, since a row-value
+    // comparison with NULL matches nothing. 'first' = no row of this phase shown yet. filter (may be null)
+    // is ANDed in front, its parameters bound first.
+    static String sortedPageSql(String select, String filter, String[] sortColumns, int column, boolean ascending, boolean nulls, boolean first) {
+        String x = sortColumns[column];
+        String cmp = ascending ? " > " : " < ";
+        String where = " WHERE " + (filter == null ? "" : filter + " AND ");
+        if (nulls) {
+            return select + where + x + " IS NULL" + (first ? "" : " AND id" + cmp + "?") + " ORDER BY id" + (ascending ? " ASC" : " DESC") + " LIMIT ?";
+        }
+        return select + where + x + " IS NOT NULL" + (first ? "" : " AND (" + x + ", id)" + cmp + "(?, ?)")
+                + orderBy(sortColumns, column, ascending, "") + " LIMIT ?";
+    }
+
+    // Token: "<listing>:<column><+|->:<N|V>:<last id>[:<last value>]" (N = in the NULL phase; empty id = phase start)
+    static String loadSortedPage(String listing, String select, String filter, Object[] params, String[] sortColumns, ColumnarTableModel.Type[] types,
+                                 int column, boolean ascending, ColumnarTableModel into, String pageToken, int pageSize) {
+        if (!sortable(sortColumns, column)) throw new IllegalArgumentException("Column " + column + " of " + listing + " is not sortable");
+        String prefix = listing + ":" + column + (ascending ? "+" : "-") + ":";
+        boolean nulls = ascending; // NULLs come first ascending
+        String lastId = null, lastValue = null;
+        if (pageToken != null && !pageToken.isEmpty()) {
+            if (!pageToken.startsWith(prefix)) throw new IllegalArgumentException("Page token '" + pageToken + "' is not for " + prefix);
+            String[] p = pageToken.substring(prefix.length()).split(":", 3);
+            nulls = p[0].equals("N");
+            lastId = p.length > 1 && !p[1].isEmpty() ? p[1] : null;
+            lastValue = p.length > 2 ? p[2] : null;
+        }
+        int want = pageSize;
+        try (Connection c = getConnection()) {
+            while (true) {
+                try (PreparedStatement ps = c.prepareStatement(sortedPageSql(select, filter, sortColumns, column, ascending, nulls, lastId == null))) {
+                    int i = 1;
+                    for (Object p : params) ps.setObject(i++, p);
+                    if (lastId != null) {
+                        if (!nulls) {
+                            if (types[column] == ColumnarTableModel.Type.INT) ps.setLong(i++, Long.parseLong(lastValue));
+                            else ps.setString(i++, lastValue);
+                        }
+                        ps.setLong(i++, Long.parseLong(lastId));
+                    }
+                    ps.setInt(i, want + 1); // one row more than asked tells whether there is a next page
+                    try (ResultSet rs = ps.executeQuery()) {
+                        int n = 0;
+                        while (rs.next()) {
+                            if (n++ == want) {
+                                return prefix + (nulls ? "N" : "V") + ":" + (lastId == null ? "" : lastId) + (lastValue == null ? "" : ":" + lastValue);
+                            }
+                            lastId = rs.getString(1);
+                            lastValue = nulls ? null : rs.getString(column + 1);
+                            into.appendRow(rs);
+                        }
+                        want -= n;
+                    }
+                }
+                if (nulls != ascending) return null; // the second phase is done too
+                nulls = !nulls;
+                lastId = null;
+                lastValue = null;
             }
         } catch (SQLException ex) { ex.printStackTrace(); }
+        return null;
+    }
+
+    private static long pageTokenId(String listing, String pageToken) {
+        if (pageToken == null || pageToken.isEmpty()) return Long.MAX_VALUE;
+        if (!pageToken.startsWith(listing + ":")) throw new IllegalArgumentException("Page token '" + pageToken + "' is not for " + listing);
+        return Long.parseLong(pageToken.substring(listing.length() + 1));
+    }
+
+    static Object[] bookRow(ResultSet rs) throws SQLException {
+        return new Object[]{
+                rs.getInt("id"),
+                rs.getString("isbn"),
+                rs.getString("title"),
+                rs.getString("author"),
+                rs.getString("category"),
+                rs.getString("publisher"),
+                rs.getString("publish_year"),
+                rs.getString("edition"),
+                rs.getInt("quantity"),
+                rs.getInt("available")
+        };
+    }
+
+    // whole listings, kept for callers that need every row; screens use the page APIs above
+    static final String SQL_ALL_BOOKS = "SELECT id, isbn, title, author, category, publisher, publish_year, edition, quantity, available FROM books ORDER BY id DESC";
+
+    public static ColumnarTableModel getAllBooksTableModel() {
+        ColumnarTableModel model = newBooksTableModel();
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(SQL_ALL_BOOKS); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) model.appendRow(rs);
+        } catch (SQLException ex) { ex.printStackTrace(); }
         return model;
     }
 
-    public static DefaultTableModel searchBooksTableModel(String keyword) {
-        String[] cols = {"Book ID", "ISBN", "Title", "Author", "Category", "Publisher", "Year", "Edition", "Quantity", "Available"};
-        DefaultTableModel model = new DefaultTableModel(cols, 0) { public boolean isCellEditable(int row, int column) { return false; } };
-        String sql = "SELECT id, isbn, title, author, category, publisher, publish_year, edition, quantity, available FROM books " +
-                "WHERE isbn LIKE ? OR title LIKE ? OR author LIKE ? OR category LIKE ? ORDER BY id DESC";
-        String kw = "%" + keyword + "%";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
-            for (int i = 1; i <= 4; i++) ps.setString(i, kw);
+    // Book search runs in two steps: the matching ids in result order (cheap, index-only), then the rows of
+    // whichever ids are on screen (loadBookRows). LazyBooksTableModel keeps only the ids and a few blocks of rows.
+
+    // LIKE scan; only used when books_fts is missing (SQLite built without FTS5) or the keyword has no word characters
+    static final String SQL_SEARCH_BOOK_IDS_WHERE = "SELECT id FROM books WHERE isbn LIKE ? OR title LIKE ? OR author LIKE ? OR category LIKE ?";
+    static final String SQL_SEARCH_BOOK_IDS = SQL_SEARCH_BOOK_IDS_WHERE + " ORDER BY id DESC LIMIT ?";
+
+    // full-text search, best matches first: a title hit outweighs an author hit, which outweighs category / ISBN
+    static final String SQL_SEARCH_BOOK_IDS_FTS = "SELECT rowid FROM books_fts WHERE books_fts MATCH ? " +
+            "ORDER BY bm25(books_fts, 1.0, 10.0, 5.0, 2.0) LIMIT ?";
+    // the same matches in a column order instead of rank (sorted listing)
+    static final String SQL_SEARCH_BOOK_IDS_FTS_JOIN = "SELECT b.id FROM books_fts JOIN books b ON b.id = books_fts.rowid WHERE books_fts MATCH ?";
+
+    // ISBN typed with or without hyphens; served by the idx_books_isbn_digits expression index
+    static final String SQL_BOOK_IDS_WHERE_ISBN_DIGITS = "SELECT id FROM books WHERE replace(replace(isbn, '-', ''), ' ', '') = ?";
+    static final String SQL_BOOK_IDS_BY_ISBN_DIGITS = SQL_BOOK_IDS_WHERE_ISBN_DIGITS + " ORDER BY id DESC";
+
+    // the whole catalogue, newest first, read from the rowid b-tree only
+    static final String SQL_BOOK_IDS = "SELECT id FROM books ORDER BY id DESC";
+
+    // most rows searchBooksTableModel returns (-Dlms.search.limit); the lazy model has no limit
+    static final int SEARCH_LIMIT = Integer.getInteger("lms.search.limit", 1000);
+
+    private static volatile Boolean booksFts;
+
+    public static ColumnarTableModel searchBooksTableModel(String keyword) {
+        ColumnarTableModel model = newBooksTableModel();
+        int[] ids = searchBookIds(keyword, SEARCH_LIMIT);
+        for (Object[] row : loadBookRows(ids, 0, ids.length)) {
+            if (row != null) model.addRow(row);
+        }
+        return model;
+    }
+
+    // Ids of every book, newest first
+    public static int[] getAllBookIds() {
+        return getAllBookIds(-1, false);
+    }
+
+    // every book id in the order of model column sortColumn (BOOK_SORT); -1 = newest first
+    static int[] getAllBookIds(int sortColumn, boolean ascending) {
+        String sql = sortColumn < 0 ? SQL_BOOK_IDS : "SELECT id FROM books" + orderBy(BOOK_SORT, sortColumn, ascending, "");
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+            return readIds(rs);
+        } catch (SQLException ex) { ex.printStackTrace(); return new int[0]; }
+    }
+
+    // Ids of the books matching keyword, best first; limit < 0 means no limit.
+    // ISBN-shaped keywords use the ISBN index, then FTS5 prefix match, then LIKE when FTS5 is unavailable.
+    public static int[] searchBookIds(String keyword, int limit) {
+        return searchBookIds(keyword, limit, null);
+    }
+
+    // as above; cancel (may be null) lets another thread interrupt the query, which then returns no ids
+    static int[] searchBookIds(String keyword, int limit, QueryCancel cancel) {
+        return searchBookIds(keyword, limit, cancel, -1, false);
+    }
+
+    // as above, in the order of model column sortColumn (BOOK_SORT) instead of best match first; -1 = by rank
+    static int[] searchBookIds(String keyword, int limit, QueryCancel cancel, int sortColumn, boolean ascending) {
+        String kw = keyword == null ? "" : keyword.trim();
+        boolean sorted = sortColumn >= 0;
+        try (Connection c = getConnection()) {
+            String digits = isbnDigits(kw);
+            if (digits != null) {
+                String sql = sorted ? SQL_BOOK_IDS_WHERE_ISBN_DIGITS + orderBy(BOOK_SORT, sortColumn, ascending, "") : SQL_BOOK_IDS_BY_ISBN_DIGITS;
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setString(1, digits);
+                    int[] ids = readIds(ps, cancel);
+                    if (ids.length > 0) return ids;
+                }
+            }
+            String match = ftsQuery(kw);
+            if (match != null && hasBooksFts(c)) {
+                String sql = sorted ? SQL_SEARCH_BOOK_IDS_FTS_JOIN + orderBy(BOOK_SORT, sortColumn, ascending, "b.") + " LIMIT ?" : SQL_SEARCH_BOOK_IDS_FTS;
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setString(1, match);
+                    ps.setInt(2, limit);
+                    return readIds(ps, cancel);
+                }
+            }
+            String sql = sorted ? SQL_SEARCH_BOOK_IDS_WHERE + orderBy(BOOK_SORT, sortColumn, ascending, "") + " LIMIT ?" : SQL_SEARCH_BOOK_IDS;
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                for (int i = 1; i <= 4; i++) ps.setString(i, "%" + kw + "%");
+                ps.setInt(5, limit);
+                return readIds(ps, cancel);
+            }
+        } catch (SQLException ex) {
+            if (cancel == null || !cancel.isCancelled()) ex.printStackTrace(); // an interrupted query is expected
+            return new int[0];
+        }
+    }
+
+    /** Stops a running search from another thread (sqlite3_interrupt via Statement.cancel); the search then returns nothing. */
+    static final class QueryCancel {
+        private volatile boolean cancelled;
+        private volatile Statement running;
+
+        void cancel() {
+            cancelled = true;
+            Statement s = running;
+            if (s != null) {
+                try { s.cancel(); } catch (SQLException ignore) { }
+            }
+        }
+
+        boolean isCancelled() { return cancelled; }
+    }
+
+    private static int[] readIds(PreparedStatement ps, QueryCancel cancel) throws SQLException {
+        if (cancel == null) {
+            try (ResultSet rs = ps.executeQuery()) { return readIds(rs); }
+        }
+        cancel.running = ps;
+        try {
+            if (cancel.isCancelled()) return new int[0];
+            try (ResultSet rs = ps.executeQuery()) { return readIds(rs); }
+        } finally {
+            cancel.running = null;
+        }
+    }
+
+    private static int[] readIds(ResultSet rs) throws SQLException {
+        int[] ids = new int[256];
+        int n = 0;
+        while (rs.next()) {
+            if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+            ids[n++] = rs.getInt(1);
+        }
+        return Arrays.copyOf(ids, n);
+    }
+
+    // Book rows for ids[from..to), in that order; an entry is null if the book has been deleted since.
+    // One "WHERE id IN (...)" per call, so the caller decides the block size.
+    public static Object[][] loadBookRows(int[] ids, int from, int to) {
+        int n = to - from;
+        Object[][] rows = new Object[n][];
+        if (n <= 0) return rows;
+        Map<Integer, Integer> slot = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) slot.put(ids[from + i], i);
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(idListSql(SQL_BOOKS_BY_IDS_PREFIX, n))) {
+            bindIdList(ps, ids, from, n);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    Vector<Object> row = new Vector<>();
-                    row.add(rs.getInt("id"));
-                    row.add(rs.getString("isbn"));
-                    row.add(rs.getString("title"));
-                    row.add(rs.getString("author"));
-                    row.add(rs.getString("category"));
-                    row.add(rs.getString("publisher"));
-                    row.add(rs.getString("publish_year"));
-                    row.add(rs.getString("edition"));
-                    row.add(rs.getInt("quantity"));
-                    row.add(rs.getInt("available"));
-                    model.addRow(row);
+                    Integer at = slot.get(rs.getInt("id"));
+                    if (at != null) rows[at] = bookRow(rs);
                 }
             }
         } catch (SQLException ex) { ex.printStackTrace(); }
-        return model;
+        return rows;
     }
 
-    // ---------- Users table helpers ----------
-    public static void createUsersTableIfNotExists() {
-        String sql = "CREATE TABLE IF NOT EXISTS users (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "full_name TEXT NOT NULL," +
-                "username TEXT NOT NULL UNIQUE," +
-                "password TEXT NOT NULL," +     // store hashed in production
-                "email TEXT," +
-                "phone TEXT," +
-                "role TEXT NOT NULL," +         // Admin / Librarian / User
-                "address TEXT," +
-                "gender TEXT," +
-                "status TEXT DEFAULT 'Active'," + // Active / Inactive
-                "date_created TEXT," +
-                "last_login TEXT" +
-                ");";
-        try (Connection c = getConnection(); Statement s = c.createStatement()) {
-            s.execute(sql);
-        } catch (SQLException ex) { ex.printStackTrace(); }
+    static final String SQL_BOOKS_BY_IDS_PREFIX = "SELECT id, isbn, title, author, category, publisher, publish_year, edition, quantity, available FROM books WHERE id IN (";
+
+    // "prefix ?,?,...)" for n ids, with the list padded to a power of two (at least 16): every result size would
+    // otherwise be its own statement, and those one-off statements push the hot lookups out of StatementCache
+    static String idListSql(String prefix, int n) {
+        int size = idListSize(n);
+        StringBuilder sql = new StringBuilder(prefix);
+        for (int i = 0; i < size; i++) sql.append(i == 0 ? "?" : ",?");
+        return sql.append(')').toString();
+    }
+
+    // binds ids[from..from+n) to an idListSql statement; the padding repeats the last id
+    static void bindIdList(PreparedStatement ps, int[] ids, int from, int n) throws SQLException {
+        int size = idListSize(n);
+        for (int i = 0; i < size; i++) ps.setInt(i + 1, ids[from + Math.min(i, n - 1)]);
+    }
+
+    private static int idListSize(int n) {
+        int size = 16;
+        while (size < n) size <<= 1;
+        return size;
+    }
+
+    // "978-0-13-110362-7" / "0131103628" -> bare digits; null if the keyword is not an ISBN
+    static String isbnDigits(String kw) {
+        String d = kw.replaceAll("[-\\s]", "");
+        return d.matches("\\d{9}[\\dXx]|\\d{13}") ? d.toUpperCase() : null;
     }
 
+    // each word becomes a quoted prefix term ("jav"* "prog"*), all of which must match; null if there are no words
+    static String ftsQuery(String kw) {
+        StringBuilder sb = new StringBuilder();
+        for (String word : kw.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append('"').append(word).append("\"*");
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    // isbn / title / author / category of each book in ids, folded like the FTS tokenizer (see searchText);
+    // null entries for deleted books, and null overall if cancelled
+    static String[] loadBookSearchText(int[] ids, QueryCancel cancel) {
+        String[] text = new String[ids.length];
+        Map<Integer, Integer> slot = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) slot.put(ids[i], i);
+        try (Connection c = getConnection()) {
+            for (int from = 0; from < ids.length; from += SEARCH_TEXT_CHUNK) {
+                if (cancel != null && cancel.isCancelled()) return null;
+                int n = Math.min(SEARCH_TEXT_CHUNK, ids.length - from);
+                try (PreparedStatement ps = c.prepareStatement(idListSql(SQL_BOOK_SEARCH_TEXT_PREFIX, n))) {
+                    bindIdList(ps, ids, from, n);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            Integer at = slot.get(rs.getInt(1));
+                            if (at != null) text[at] = searchText(rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException ex) { ex.printStackTrace(); return null; }
+        return text;
+    }
+
+    static final String SQL_BOOK_SEARCH_TEXT_PREFIX = "SELECT id, isbn, title, author, category FROM books WHERE id IN (";
+    private static final int SEARCH_TEXT_CHUNK = 512; // a power of two: only the last chunk is padded (idListSql)
+
+    // " word word ... " - lower case, accents removed, split on anything but letters and digits, like unicode61
+    static String searchText(String... fields) {
+        StringBuilder sb = new StringBuilder(" ");
+        for (String f : fields) {
+            if (f == null) continue;
+            for (String word : fold(f).split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) sb.append(word).append(' ');
+            }
+        }
+        return sb.toString();
+    }
+
+    // the words of a keyword, folded the same way; FTS treats each as a prefix
+    static String[] searchWords(String kw) {
+        return Arrays.stream(fold(kw).split("[^\\p{L}\\p{N}]+")).filter(w -> !w.isEmpty()).toArray(String[]::new);
+    }
+
+    // true if every word is the start of some word in text, i.e. what MATCH ftsQuery(kw) would return
+    static boolean matchesSearchWords(String text, String[] words) {
+        if (text == null) return false;
+        for (String w : words) {
+            if (!text.contains(" " + w)) return false;
+        }
+        return true;
+    }
+
+    private static String fold(String s) {
+        return Normalizer.normalize(s, Normalizer.Form.NFD).replaceAll("\\p{M}+", "").toLowerCase(java.util.Locale.ROOT);
+    }
+
+    static boolean booksFullTextAvailable() {
+        try (Connection c = getConnection()) {
+            return hasBooksFts(c);
+        } catch (SQLException ex) { ex.printStackTrace(); return false; }
+    }
+
+    // books_fts is created by migration 6 unless this SQLite has no FTS5
+    private static boolean hasBooksFts(Connection c) throws SQLException {
+        Boolean has = booksFts;
+        if (has == null) {
+            try (PreparedStatement ps = c.prepareStatement("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'books_fts'");
+                 ResultSet rs = ps.executeQuery()) {
+                booksFts = has = rs.next();
+            }
+        }
+        return has;
+    }
+
+    // ---------- Users table helpers ----------
     public static boolean insertUser(String fullName, String username, String password,
                                      String email, String phone, String role,
                                      String address, String gender, String status) {
@@ -464,6 +1205,9 @@ class DBHelper {
             ps.setString(9, status);
             ps.setString(10, now);
             ps.executeUpdate();
+            int id = lastInsertId(c);
+            LibraryStats.activeUsersChanged(PatronCache.refresh(c, id));
+            publish("users", Change.INSERT, id);
             return true;
         } catch (SQLException ex) { ex.printStackTrace(); return false; }
     }
@@ -483,7 +1227,9 @@ class DBHelper {
             ps.setString(8, gender);
             ps.setString(9, status);
             ps.setInt(10, id);
-            ps.executeUpdate();
+            int updated = ps.executeUpdate();
+            LibraryStats.activeUsersChanged(PatronCache.refresh(c, id));
+            if (updated > 0) publish("users", Change.UPDATE, id);
             return true;
         } catch (SQLException ex) { ex.printStackTrace(); return false; }
     }
@@ -492,102 +1238,56 @@ class DBHelper {
         String sql = "DELETE FROM users WHERE id=?;";
         try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setInt(1, id);
-            ps.executeUpdate();
+            int deleted = ps.executeUpdate();
+            LibraryStats.activeUsersChanged(PatronCache.refresh(c, id));
+            if (deleted > 0) publish("users", Change.DELETE, id);
             return true;
         } catch (SQLException ex) { ex.printStackTrace(); return false; }
     }
 
-    public static DefaultTableModel getAllUsersTableModel() {
-        String[] cols = {"User ID", "Full Name", "Username", "Email", "Phone", "Role", "Status", "Date Created", "Last Login"};
-        DefaultTableModel model = new DefaultTableModel(cols, 0) { public boolean isCellEditable(int row, int column) { return false; } };
-        String sql = "SELECT id, full_name, username, email, phone, role, status, date_created, last_login FROM users ORDER BY id DESC";
-        try (Connection c = getConnection(); Statement s = c.createStatement(); ResultSet rs = s.executeQuery(sql)) {
-            while (rs.next()) {
-                Vector<Object> row = new Vector<>();
-                row.add(rs.getInt("id"));
-                row.add(rs.getString("full_name"));
-                row.add(rs.getString("username"));
-                row.add(rs.getString("email"));
-                row.add(rs.getString("phone"));
-                row.add(rs.getString("role"));
-                row.add(rs.getString("status"));
-                row.add(rs.getString("date_created"));
-                row.add(rs.getString("last_login"));
-                model.addRow(row);
-            }
+    static final String SQL_ALL_USERS = "SELECT id, full_name, username, email, phone, role, status, date_created, last_login FROM users ORDER BY id DESC";
+
+    public static ColumnarTableModel getAllUsersTableModel() {
+        ColumnarTableModel model = newUsersTableModel();
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(SQL_ALL_USERS); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) model.appendRow(rs);
         } catch (SQLException ex) { ex.printStackTrace(); }
         return model;
     }
 
     // ----------------- Librarians table (for Manage Librarians) -----------------
-    public static void createLibrariansTableIfNotExists() {
-        String sql = "CREATE TABLE IF NOT EXISTS librarians (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "full_name TEXT NOT NULL," +
-                "username TEXT NOT NULL UNIQUE," +
-                "password TEXT NOT NULL," +
-                "email TEXT," +
-                "phone TEXT," +
-                "address TEXT," +
-                "gender TEXT," +
-                "date_joining TEXT," +
-                "shift TEXT," +
-                "status TEXT," +
-                "photo BLOB" +
-                ");";
-        try (Connection c = getConnection(); Statement s = c.createStatement()) {
-            s.execute(sql);
-        } catch (SQLException ex) { ex.printStackTrace(); }
-    }
+    static final String SQL_ALL_LIBRARIANS = "SELECT id, full_name, username, email, phone, date_joining, status FROM librarians ORDER BY id DESC";
 
-    public static DefaultTableModel getAllLibrariansTableModel() {
-        String[] cols = {"ID","Full Name","Username","Email","Phone","Joining Date","Status"};
-        DefaultTableModel model = new DefaultTableModel(cols, 0) { public boolean isCellEditable(int row, int column) { return false; } };
-        String q = "SELECT id, full_name, username, email, phone, date_joining, status FROM librarians ORDER BY id DESC";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(q); ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                Vector<Object> r = new Vector<>();
-                r.add(rs.getInt("id"));
-                r.add(rs.getString("full_name"));
-                r.add(rs.getString("username"));
-                r.add(rs.getString("email"));
-                r.add(rs.getString("phone"));
-                r.add(rs.getString("date_joining"));
-                r.add(rs.getString("status"));
-                model.addRow(r);
-            }
+    public static ColumnarTableModel getAllLibrariansTableModel() {
+        ColumnarTableModel model = newLibrariansTableModel();
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(SQL_ALL_LIBRARIANS); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) model.appendRow(rs);
         } catch (SQLException ex) { ex.printStackTrace(); }
         return model;
     }
 
+    static final String SQL_SEARCH_LIBRARIANS = "SELECT id, full_name, username, email, phone, date_joining, status FROM librarians WHERE full_name LIKE ? OR username LIKE ? OR email LIKE ? OR phone LIKE ? ORDER BY id DESC";
+
     // search librarians
-    public static DefaultTableModel searchLibrariansTableModel(String keyword) {
-        String[] cols = {"ID","Full Name","Username","Email","Phone","Joining Date","Status"};
-        DefaultTableModel model = new DefaultTableModel(cols, 0) { public boolean isCellEditable(int row, int column) { return false; } };
-        String sql = "SELECT id, full_name, username, email, phone, date_joining, status FROM librarians WHERE full_name LIKE ? OR username LIKE ? OR email LIKE ? OR phone LIKE ? ORDER BY id DESC";
+    public static ColumnarTableModel searchLibrariansTableModel(String keyword) {
+        ColumnarTableModel model = newLibrariansTableModel();
         String s = "%" + keyword + "%";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(SQL_SEARCH_LIBRARIANS)) {
             for (int i=1;i<=4;i++) ps.setString(i, s);
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    Vector<Object> r = new Vector<>();
-                    r.add(rs.getInt("id"));
-                    r.add(rs.getString("full_name"));
-                    r.add(rs.getString("username"));
-                    r.add(rs.getString("email"));
-                    r.add(rs.getString("phone"));
-                    r.add(rs.getString("date_joining"));
-                    r.add(rs.getString("status"));
-                    model.addRow(r);
-                }
+                while (rs.next()) model.appendRow(rs);
             }
         } catch (SQLException ex) { ex.printStackTrace(); }
         return model;
     }
 
+    // the form's columns: the thumbnail, never the full photo BLOB (LibrarianPhotos.loadOriginal reads that)
+    static final String SQL_LIBRARIAN_BY_ID = "SELECT id, full_name, username, password, email, phone, address, gender, " +
+            "date_joining, shift, status, photo_thumb FROM librarians WHERE id = ? LIMIT 1";
+
+    // rec[11] is the JPEG thumbnail (LibrarianPhotos), or null
     public static Object[] getLibrarianById(int id) {
-        String q = "SELECT * FROM librarians WHERE id = ? LIMIT 1";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(q)) {
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(SQL_LIBRARIAN_BY_ID)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -603,7 +1303,7 @@ class DBHelper {
                             rs.getString("date_joining"),
                             rs.getString("shift"),
                             rs.getString("status"),
-                            rs.getBytes("photo")
+                            rs.getBytes("photo_thumb")
                     };
                 }
             }
@@ -613,7 +1313,7 @@ class DBHelper {
 
     public static boolean insertLibrarian(String fullName, String username, String password, String email, String phone,
                                           String address, String gender, String dateJoining, String shift, String status, byte[] photo) {
-        String sql = "INSERT INTO librarians(full_name, username, password, email, phone, address, gender, date_joining, shift, status, photo) VALUES(?,?,?,?,?,?,?,?,?,?,?)";
+        String sql = "INSERT INTO librarians(full_name, username, password, email, phone, address, gender, date_joining, shift, status, photo, photo_thumb) VALUES(?,?,?,?,?,?,?,?,?,?,?,?)";
         try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
             int idx=1;
             ps.setString(idx++, fullName);
@@ -626,15 +1326,24 @@ class DBHelper {
             ps.setString(idx++, dateJoining);
             ps.setString(idx++, shift);
             ps.setString(idx++, status);
-            if (photo != null) ps.setBytes(idx++, photo); else ps.setNull(idx++, Types.BLOB);
+            setPhoto(ps, idx, photo);
             ps.executeUpdate();
+            publish("librarians", Change.INSERT, lastInsertId(c));
             return true;
         } catch (SQLException ex) { ex.printStackTrace(); return false; }
     }
 
     public static boolean updateLibrarian(int id, String fullName, String username, String password, String email, String phone,
                                           String address, String gender, String dateJoining, String shift, String status, byte[] photo) {
-        String sql = "UPDATE librarians SET full_name=?, username=?, password=?, email=?, phone=?, address=?, gender=?, date_joining=?, shift=?, status=?, photo=? WHERE id=?";
+        return updateLibrarian(id, fullName, username, password, email, phone, address, gender, dateJoining, shift, status, photo, true);
+    }
+
+    // photoChanged false: the stored photo and thumbnail stay as they are (the form only ever had the thumbnail)
+    public static boolean updateLibrarian(int id, String fullName, String username, String password, String email, String phone,
+                                          String address, String gender, String dateJoining, String shift, String status,
+                                          byte[] photo, boolean photoChanged) {
+        String sql = "UPDATE librarians SET full_name=?, username=?, password=?, email=?, phone=?, address=?, gender=?, date_joining=?, shift=?, status=?"
+                + (photoChanged ? ", photo=?, photo_thumb=?" : "") + " WHERE id=?";
         try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
             int idx=1;
             ps.setString(idx++, fullName);
@@ -647,56 +1356,97 @@ class DBHelper {
             ps.setString(idx++, dateJoining);
             ps.setString(idx++, shift);
             ps.setString(idx++, status);
-            if (photo != null) ps.setBytes(idx++, photo); else ps.setNull(idx++, Types.BLOB);
+            if (photoChanged) idx = setPhoto(ps, idx, photo);
             ps.setInt(idx, id);
             int u = ps.executeUpdate();
+            if (u > 0) publish("librarians", Change.UPDATE, id);
             return u>0;
         } catch (SQLException ex) { ex.printStackTrace(); return false; }
     }
 
+    // binds photo and its thumbnail at idx, idx + 1; returns the next index
+    private static int setPhoto(PreparedStatement ps, int idx, byte[] photo) throws SQLException {
+        byte[] thumb = LibrarianPhotos.thumbnail(photo);
+        if (photo != null) ps.setBytes(idx++, photo); else ps.setNull(idx++, Types.BLOB);
+        if (thumb != null) ps.setBytes(idx++, thumb); else ps.setNull(idx++, Types.BLOB);
+        return idx;
+    }
+
     public static boolean deleteLibrarian(int id) {
         String sql = "DELETE FROM librarians WHERE id=?";
         try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setInt(1, id);
             int d = ps.executeUpdate();
+            if (d > 0) publish("librarians", Change.DELETE, id);
             return d>0;
         } catch (SQLException ex) { ex.printStackTrace(); return false; }
     }
 
     // ----------------- ISSUES table & helpers -----------------
-    public static void createIssuesTableIfNotExists() {
-        String sql = "CREATE TABLE IF NOT EXISTS issues (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "book_id INTEGER," +
-                "book_title TEXT," +
-                "user_id INTEGER," +
-                "user_name TEXT," +
-                "issue_date TEXT," +
-                "due_date TEXT," +
-                "return_date TEXT," +
-                "late_days INTEGER DEFAULT 0," +
-                "issued_by TEXT," +
-                "remarks TEXT" +
-                ");";
-        try (Connection c = getConnection(); Statement s = c.createStatement()) {
-            s.execute(sql);
-        } catch (SQLException ex) { ex.printStackTrace(); }
+    static final String SQL_INSERT_ISSUE = "INSERT INTO issues (book_id, book_title, user_id, user_name, issue_date, due_date, issued_by, remarks) VALUES (?, ?, ?, ?, ?, ?, ?, ?);";
+    static final String SQL_DEC_AVAILABLE = "UPDATE books SET available = available - 1 WHERE id = ? AND available > 0;";
+
+    static final String SQL_BOOK_AVAILABLE = "SELECT available FROM books WHERE id = ?";
+
+    /** What insertIssue / returnIssue did: the issue, the book's available copies after it, and how long it took. */
+    static final class IssueResult {
+        final boolean ok;
+        final int issueId;    // generated on insert; -1 when the insert failed
+        final int bookId;
+        final int available;  // books.available after the change (same transaction); -1 when it failed
+        final String error;   // why it failed, for the dialog; null when ok
+        final long nanos;
+
+        private IssueResult(boolean ok, int issueId, int bookId, int available, String error, long started) {
+            this.ok = ok;
+            this.issueId = issueId;
+            this.bookId = bookId;
+            this.available = available;
+            this.error = error;
+            this.nanos = System.nanoTime() - started;
+        }
+
+        static IssueResult done(int issueId, int bookId, int available, long started) {
+            return new IssueResult(true, issueId, bookId, available, null, started);
+        }
+
+        static IssueResult failed(int issueId, int bookId, String error, long started) {
+            return new IssueResult(false, issueId, bookId, -1, error, started);
+        }
+
+        double millis() { return nanos / 1_000_000.0; }
+
+        public String toString() {
+            return String.format(ok ? "issue %d book %d available=%d (%.1f ms)" : "issue %d book %d failed: %5$s (%4$.1f ms)",
+                    issueId, bookId, available, millis(), error);
+        }
     }
 
-    // Insert new issue (transactional: decrement book.available then insert issue)
-    public static boolean insertIssue(int bookId, String bookTitle, int userId, String userName,
-                                      String issueDate, String dueDate, String issuedBy, String remarks) {
-        String insertIssue = "INSERT INTO issues (book_id, book_title, user_id, user_name, issue_date, due_date, issued_by, remarks) VALUES (?, ?, ?, ?, ?, ?, ?, ?);";
-        String decAvailable = "UPDATE books SET available = available - 1 WHERE id = ? AND available > 0;";
+    // Insert new issue (transactional: decrement book.available then insert issue).
+    // The new id is last_insert_rowid() of this connection, inside the transaction: never another desk's issue.
+    // AvailabilityLedger reserves the copy first; a book it knows is out is refused without opening a transaction.
+    public static IssueResult insertIssue(int bookId, String bookTitle, int userId, String userName,
+                                          String issueDate, String dueDate, String issuedBy, String remarks) {
+        long started = System.nanoTime();
+        AvailabilityLedger.Reservation reservation = AvailabilityLedger.reserve(bookId);
+        if (reservation == AvailabilityLedger.Reservation.SOLD_OUT) {
+            return IssueResult.failed(-1, bookId, "No available copies of book " + bookId + ".", started);
+        }
+        boolean reserved = reservation == AvailabilityLedger.Reservation.RESERVED;
+        boolean counted = false; // the ledger was adjusted inside the transaction
         try (Connection c = getConnection()) {
             c.setAutoCommit(false);
-            try (PreparedStatement ps2 = c.prepareStatement(decAvailable)) {
+            try (PreparedStatement ps2 = c.prepareStatement(SQL_DEC_AVAILABLE)) {
                 ps2.setInt(1, bookId);
                 int changed = ps2.executeUpdate();
-                if (changed == 0) { c.rollback(); return false; } // no available copies
+                if (changed == 0) {
+                    c.rollback();
+                    if (reserved) AvailabilityLedger.forget(bookId); // the ledger thought a copy was free
+                    return IssueResult.failed(-1, bookId, "No available copies of book " + bookId + ".", started);
+                }
             }
 
-            try (PreparedStatement ps1 = c.prepareStatement(insertIssue)) {
+            try (PreparedStatement ps1 = c.prepareStatement(SQL_INSERT_ISSUE)) {
                 ps1.setInt(1, bookId);
                 ps1.setString(2, bookTitle);
                 ps1.setInt(3, userId);
@@ -707,77 +1457,100 @@ class DBHelper {
                 ps1.setString(8, remarks);
                 ps1.executeUpdate();
             }
+            int issueId = lastInsertId(c);
+            int available = availableCopies(c, bookId);
+            if (!reserved) {
+                AvailabilityLedger.issued(bookId, available);
+                counted = true;
+            }
+            long ticket = CatalogCache.writeTicket();
 
             c.commit();
-            return true;
+            CatalogCache.setAvailable(bookId, available, ticket);
+            LibraryStats.issued(dueDate);
+            publish("issues", Change.INSERT, issueId);
+            publish("books", Change.UPDATE, bookId); // available went down
+            return IssueResult.done(issueId, bookId, available, started);
         } catch (SQLException ex) {
             ex.printStackTrace();
-            return false;
+            if (reserved) AvailabilityLedger.release(bookId);
+            else if (counted) AvailabilityLedger.forget(bookId);
+            return IssueResult.failed(-1, bookId, ex.getMessage(), started);
         }
     }
 
+    static final String SQL_RETURN_ISSUE = "UPDATE issues SET return_date = ?, late_days = ?, remarks = COALESCE(remarks, '') || ? WHERE id = ? AND return_date IS NULL;";
+    static final String SQL_ISSUE_BOOK_ID = "SELECT book_id, due_date FROM issues WHERE id = ? LIMIT 1;";
+    static final String SQL_INC_AVAILABLE = "UPDATE books SET available = available + 1 WHERE id = ?;";
+
     // Mark return (update issues, set return_date, late_days, append remarks) and increment book.available
-    public static boolean returnIssue(int issueId, String returnDate, int lateDays, String remarks) {
-        String updateIssue = "UPDATE issues SET return_date = ?, late_days = ?, remarks = COALESCE(remarks, '') || ? WHERE id = ? AND return_date IS NULL;";
-        String getBookId = "SELECT book_id FROM issues WHERE id = ? LIMIT 1;";
-        String incAvailable = "UPDATE books SET available = available + 1 WHERE id = ?;";
+    public static IssueResult returnIssue(int issueId, String returnDate, int lateDays, String remarks) {
+        long started = System.nanoTime();
+        int counted = -1; // book whose ledger counter was adjusted inside the transaction
         try (Connection c = getConnection()) {
             c.setAutoCommit(false);
-            try (PreparedStatement psGet = c.prepareStatement(getBookId)) {
+            try (PreparedStatement psGet = c.prepareStatement(SQL_ISSUE_BOOK_ID)) {
                 psGet.setInt(1, issueId);
                 try (ResultSet rs = psGet.executeQuery()) {
-                    if (!rs.next()) { c.rollback(); return false; }
+                    if (!rs.next()) { c.rollback(); return IssueResult.failed(issueId, -1, "Issue " + issueId + " not found.", started); }
                     int bookId = rs.getInt("book_id");
+                    String dueDate = rs.getString("due_date");
 
-                    try (PreparedStatement psUpd = c.prepareStatement(updateIssue)) {
+                    try (PreparedStatement psUpd = c.prepareStatement(SQL_RETURN_ISSUE)) {
                         String appended = (remarks == null || remarks.trim().isEmpty()) ? "" : ("\nReturn remarks: " + remarks);
                         psUpd.setString(1, returnDate);
                         psUpd.setInt(2, lateDays);
                         psUpd.setString(3, appended);
                         psUpd.setInt(4, issueId);
                         int updated = psUpd.executeUpdate();
-                        if (updated == 0) { c.rollback(); return false; } // already returned or not found
+                        if (updated == 0) { c.rollback(); return IssueResult.failed(issueId, bookId, "Issue " + issueId + " is already returned.", started); }
                     }
 
-                    try (PreparedStatement psInc = c.prepareStatement(incAvailable)) {
+                    try (PreparedStatement psInc = c.prepareStatement(SQL_INC_AVAILABLE)) {
                         psInc.setInt(1, bookId);
                         psInc.executeUpdate();
                     }
+                    int available = availableCopies(c, bookId);
+                    AvailabilityLedger.returned(bookId, available);
+                    counted = bookId;
+                    long ticket = CatalogCache.writeTicket();
 
                     c.commit();
-                    return true;
+                    CatalogCache.setAvailable(bookId, available, ticket);
+                    LibraryStats.returned(dueDate);
+                    publish("issues", Change.UPDATE, issueId);
+                    publish("books", Change.UPDATE, bookId); // available went up
+                    return IssueResult.done(issueId, bookId, available, started);
                 }
             }
-        } catch (SQLException ex) { ex.printStackTrace(); return false; }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            if (counted >= 0) AvailabilityLedger.forget(counted);
+            return IssueResult.failed(issueId, -1, ex.getMessage(), started);
+        }
     }
 
-    public static DefaultTableModel getAllIssuesTableModel() {
-        String[] cols = {"Issue ID", "Book ID", "Book Title", "User ID", "User Name", "Issue Date", "Due Date", "Return Date", "Late Days", "Issued By", "Remarks"};
-        DefaultTableModel model = new DefaultTableModel(cols, 0) { public boolean isCellEditable(int row, int column) { return false; } };
-        String sql = "SELECT id, book_id, book_title, user_id, user_name, issue_date, due_date, return_date, late_days, issued_by, remarks FROM issues ORDER BY id DESC";
-        try (Connection c = getConnection(); Statement s = c.createStatement(); ResultSet rs = s.executeQuery(sql)) {
-            while (rs.next()) {
-                Vector<Object> row = new Vector<>();
-                row.add(rs.getInt("id"));
-                row.add(rs.getInt("book_id"));
-                row.add(rs.getString("book_title"));
-                row.add(rs.getInt("user_id"));
-                row.add(rs.getString("user_name"));
-                row.add(rs.getString("issue_date"));
-                row.add(rs.getString("due_date"));
-                row.add(rs.getString("return_date"));
-                row.add(rs.getInt("late_days"));
-                row.add(rs.getString("issued_by"));
-                row.add(rs.getString("remarks"));
-                model.addRow(row);
-            }
+    private static int availableCopies(Connection c, int bookId) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(SQL_BOOK_AVAILABLE)) {
+            ps.setInt(1, bookId);
+            try (ResultSet rs = ps.executeQuery()) { return rs.next() ? rs.getInt(1) : -1; }
+        }
+    }
+
+    static final String SQL_ALL_ISSUES = "SELECT id, book_id, book_title, user_id, user_name, issue_date, due_date, return_date, late_days, issued_by, remarks FROM issues ORDER BY id DESC";
+
+    public static ColumnarTableModel getAllIssuesTableModel() {
+        ColumnarTableModel model = newIssuesTableModel();
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(SQL_ALL_ISSUES); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) model.appendRow(rs);
         } catch (SQLException ex) { ex.printStackTrace(); }
         return model;
     }
 
+    static final String SQL_ISSUE_BY_ID = "SELECT id, book_id, book_title, user_id, user_name, issue_date, due_date, return_date, late_days, issued_by, remarks FROM issues WHERE id = ? LIMIT 1;";
+
     public static Object[] getIssueById(int issueId) {
-        String sql = "SELECT id, book_id, book_title, user_id, user_name, issue_date, due_date, return_date, late_days, issued_by, remarks FROM issues WHERE id = ? LIMIT 1;";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(SQL_ISSUE_BY_ID)) {
             ps.setInt(1, issueId);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -800,27 +1573,29 @@ class DBHelper {
         return null;
     }
 
-    // Optional user helpers (used by Issue page)
+    static final String SQL_USER_BY_ID = "SELECT id, full_name, username, status FROM users WHERE id = ? LIMIT 1";
+
+    // Optional user helpers (used by Issue page): {id, full_name, username, status} or null, from PatronCache
     public static Object[] getUserById(int userId) {
-        String q = "SELECT id, full_name, username FROM users WHERE id = ? LIMIT 1";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(q)) {
-            ps.setInt(1, userId);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    return new Object[]{ rs.getInt("id"), rs.getString("full_name"), rs.getString("username") };
-                }
-            }
-        } catch (SQLException ex) { ex.printStackTrace(); }
-        return null;
+        Object[] cached = PatronCache.get(userId);
+        return cached != PatronCache.NOT_CACHED ? cached : readUser(SQL_USER_BY_ID, userId);
     }
 
+    static final String SQL_USER_BY_USERNAME = "SELECT id, full_name, username, status FROM users WHERE username = ? LIMIT 1";
+
     public static Object[] getUserByUsername(String username) {
-        String q = "SELECT id, full_name, username FROM users WHERE username = ? LIMIT 1";
-        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(q)) {
-            ps.setString(1, username);
+        Object[] cached = PatronCache.getByUsername(username);
+        return cached != PatronCache.NOT_CACHED ? cached : readUser(SQL_USER_BY_USERNAME, username);
+    }
+
+    // patrons past -Dlms.cache.patrons
+    private static Object[] readUser(String sql, Object key) {
+        PatronCache.fellBack();
+        try (Connection c = getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setObject(1, key);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return new Object[]{ rs.getInt("id"), rs.getString("full_name"), rs.getString("username") };
+                    return new Object[]{ rs.getInt("id"), rs.getString("full_name"), rs.getString("username"), rs.getString("status") };
                 }
             }
         } catch (SQLException ex) { ex.printStackTrace(); }
@@ -828,6 +1603,164 @@ class DBHelper {
     }
 }
 
+/* ---------------- LoadMore: "Load more" button over a DBHelper keyset listing ---------------- */
+class LoadMore {
+    interface PageLoader {
+        String load(ColumnarTableModel into, String pageToken); // DBHelper.loadXxxPage
+    }
+
+    final JButton button = new JButton("Load more");
+    private PageLoader loader;
+    private Runnable onLoaded = () -> {};
+    private final UiTasks.Slot slot = new UiTasks.Slot();
+    private ColumnarTableModel model;
+    private String next;
+
+    LoadMore(PageLoader loader) {
+        this.loader = loader;
+        button.setEnabled(false);
+        button.addActionListener(e -> more());
+    }
+
+    // called after every page, e.g. to update a record count
+    void onLoaded(Runnable r) { this.onLoaded = r; }
+
+    // empties the model and loads the first page into it (in the background; supersedes a page still loading)
+    void reset(ColumnarTableModel model) {
+        reset(model, loader);
+    }
+
+    // as above, paging a different listing from now on (e.g. a filter result)
+    void reset(ColumnarTableModel model, PageLoader loader) {
+        this.loader = loader;
+        this.model = model;
+        model.setRowCount(0);
+        next = null;
+        fetch(null);
+    }
+
+    void more() {
+        if (next == null) return;
+        fetch(next);
+    }
+
+    // the page is read into a scratch model off the EDT, then its rows are appended here
+    private void fetch(String token) {
+        ColumnarTableModel target = model;
+        ColumnarTableModel page = target.emptyCopy();
+        PageLoader source = loader;
+        button.setEnabled(false);
+        slot.submit(button, () -> source.load(page, token), nextToken -> {
+            target.addRows(page);
+            next = nextToken;
+            button.setEnabled(next != null);
+            onLoaded.run();
+        });
+    }
+
+    // the table now shows something else (search results): nothing more to load
+    void stop() {
+        slot.cancel();
+        next = null;
+        button.setEnabled(false);
+    }
+
+    boolean hasMore() { return next != null; }
+}
+
+/* ---------------- TableSync: applies DBHelper change events to an open listing ---------------- */
+class TableSync implements DBHelper.ChangeListener {
+    private final String table;
+    private ColumnarTableModel model;
+    private boolean inserts; // false while the model shows a filtered result: a new row may not match it
+
+    // listens while owner is displayable (until its window is disposed)
+    TableSync(String table, Component owner) {
+        this.table = table;
+        owner.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) == 0) return;
+            if (owner.isDisplayable()) DBHelper.addChangeListener(this);
+            else DBHelper.removeChangeListener(this);
+        });
+        if (owner.isDisplayable()) DBHelper.addChangeListener(this);
+    }
+
+    // the model now on screen; newest-first listings take new rows at the top
+    void follow(ColumnarTableModel model, boolean inserts) {
+        this.model = model;
+        this.inserts = inserts;
+    }
+
+    public void rowChanged(String t, DBHelper.Change change, int id) {
+        if (!table.equals(t) || model == null) return;
+        ColumnarTableModel target = model;
+        int row = target.rowOfId(id);
+        if (change == DBHelper.Change.DELETE) {
+            if (row >= 0) target.removeRow(row);
+            return;
+        }
+        if (change == DBHelper.Change.UPDATE ? row < 0 : !inserts) return; // not on screen
+        UiTasks.run(null, () -> DBHelper.loadListingRow(table, id), values -> {
+            if (values == null || target != model) return;
+            int at = target.rowOfId(id); // re-read: other events may have moved it
+            if (at >= 0) target.setRow(at, values);
+            else if (change == DBHelper.Change.INSERT) target.insertRow(0, values);
+        });
+    }
+}
+
+/* ---------------- HeaderSort: a header click re-reads the listing in a new order ---------------- */
+class HeaderSort {
+    interface Listener {
+        void sortBy(int column, boolean ascending); // model column, or -1 for the listing's own order
+    }
+
+    private final String[] sortable; // DBHelper.BOOK_SORT / ISSUE_SORT / USER_SORT: other columns ignore clicks
+    private final JTableHeader header;
+    private int column = -1;
+    private boolean ascending = true;
+
+    // replaces setAutoCreateRowSorter: the listing is paged or lazy, so the table cannot sort what it has not read
+    HeaderSort(JTable table, String[] sortable, Listener listener) {
+        this.sortable = sortable;
+        this.header = table.getTableHeader();
+        TableCellRenderer plain = header.getDefaultRenderer();
+        header.setDefaultRenderer((t, value, selected, focus, row, col) -> {
+            Component c = plain.getTableCellRendererComponent(t, value, selected, focus, row, col);
+            if (c instanceof JLabel) {
+                boolean sorted = t != null && column >= 0 && t.convertColumnIndexToModel(col) == column;
+                ((JLabel) c).setIcon(sorted ? UIManager.getIcon(ascending ? "Table.ascendingSortIcon" : "Table.descendingSortIcon") : null);
+                ((JLabel) c).setHorizontalTextPosition(SwingConstants.LEADING);
+            }
+            return c;
+        });
+        header.addMouseListener(new MouseAdapter() {
+            public void mouseClicked(MouseEvent e) {
+                if (!SwingUtilities.isLeftMouseButton(e)) return;
+                int view = header.columnAtPoint(e.getPoint());
+                if (view < 0) return;
+                int col = table.convertColumnIndexToModel(view);
+                if (!DBHelper.sortable(sortable, col)) return;
+                ascending = col != column || !ascending; // first click ascending, then toggle
+                column = col;
+                header.repaint();
+                listener.sortBy(column, ascending);
+            }
+        });
+    }
+
+    int column() { return column; }
+
+    boolean ascending() { return ascending; }
+
+    // back to the listing's own order (e.g. a filter result shown in it)
+    void clear() {
+        column = -1;
+        ascending = true;
+        header.repaint();
+    }
+}
+
 /* ---------------- AddBooksPage ---------------- */
 class AddBooksPage extends JFrame {
     private JTextField titleField, authorField, isbnField, publisherField, yearField, quantityField, editionField;
@@ -842,20 +1775,10 @@ class AddBooksPage extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setLayout(new BorderLayout());
 
-        ImageIcon bgRaw = new ImageIcon("00.jpg");
-        Image bgScaled = bgRaw.getImage().getScaledInstance(600, 520, Image.SCALE_SMOOTH);
-        JLabel bgLabel = new JLabel(new ImageIcon(bgScaled));
+        JLabel bgLabel = BackgroundImageCache.label(this, 600, 520); // rescales itself on resize
         bgLabel.setLayout(new GridBagLayout());
         add(bgLabel);
 
-        addComponentListener(new java.awt.event.ComponentAdapter() {
-            public void componentResized(java.awt.event.ComponentEvent evt) {
-                ImageIcon ri = new ImageIcon("00.jpg");
-                Image sc = ri.getImage().getScaledInstance(getWidth(), getHeight(), Image.SCALE_SMOOTH);
-                bgLabel.setIcon(new ImageIcon(sc));
-            }
-        });
-
         JPanel p = new JPanel(new GridBagLayout());
         p.setBorder(BorderFactory.createEmptyBorder(16, 16, 16, 16));
         p.setBackground(new Color(255,255,255,210));
@@ -919,9 +1842,11 @@ class AddBooksPage extends JFrame {
             try { qtyInt = Integer.parseInt(qty); if (qtyInt < 0) throw new NumberFormatException(); }
             catch (NumberFormatException ex) { JOptionPane.showMessageDialog(this, "Quantity must be a non-negative integer."); return; }
 
-            boolean ok = DBHelper.insertBook(isbn, title, author, category, publisher, year, edition, qtyInt, qtyInt);
-            if (ok) { JOptionPane.showMessageDialog(this, "Book Saved Successfully!"); dispose(); }
-            else { JOptionPane.showMessageDialog(this, "Failed to save book. See console for details.", "Error", JOptionPane.ERROR_MESSAGE); }
+            int copies = qtyInt;
+            UiTasks.run(this, () -> DBHelper.insertBook(isbn, title, author, category, publisher, year, edition, copies, copies), ok -> {
+                if (ok) { JOptionPane.showMessageDialog(this, "Book Saved Successfully!"); dispose(); }
+                else { JOptionPane.showMessageDialog(this, "Failed to save book. See console for details.", "Error", JOptionPane.ERROR_MESSAGE); }
+            }, save);
         });
 
         setVisible(true);
@@ -941,20 +1866,10 @@ class EditBooksPage extends JFrame {
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
-        ImageIcon bgRaw = new ImageIcon("00.jpg");
-        Image bgScaled = bgRaw.getImage().getScaledInstance(700, 560, Image.SCALE_SMOOTH);
-        JLabel bgLabel = new JLabel(new ImageIcon(bgScaled));
+        JLabel bgLabel = BackgroundImageCache.label(this, 700, 560); // rescales itself on resize
         bgLabel.setLayout(new GridBagLayout());
         add(bgLabel);
 
-        addComponentListener(new java.awt.event.ComponentAdapter() {
-            public void componentResized(java.awt.event.ComponentEvent evt) {
-                ImageIcon ri = new ImageIcon("00.jpg");
-                Image sc = ri.getImage().getScaledInstance(getWidth(), getHeight(), Image.SCALE_SMOOTH);
-                bgLabel.setIcon(new ImageIcon(sc));
-            }
-        });
-
         JPanel p = new JPanel(new GridBagLayout());
         p.setBorder(BorderFactory.createEmptyBorder(16, 16, 16, 16));
         p.setBackground(new Color(255,255,255,210));
@@ -1010,39 +1925,41 @@ class EditBooksPage extends JFrame {
         findBtn.addActionListener(e -> {
             String idText = idField.getText().trim();
             String isbnText = isbnField.getText().trim();
-            Object[] book = null;
+            UiTasks.Work<Object[]> lookup;
 
             if (!idText.isEmpty()) {
                 try {
                     int id = Integer.parseInt(idText);
-                    book = DBHelper.getBookById(id);
+                    lookup = () -> DBHelper.getBookById(id);
                 } catch (NumberFormatException ex) {
                     JOptionPane.showMessageDialog(this, "Book ID must be numeric.", "Invalid ID", JOptionPane.WARNING_MESSAGE);
                     return;
                 }
             } else if (!isbnText.isEmpty()) {
-                book = DBHelper.getBookByISBN(isbnText);
+                lookup = () -> DBHelper.getBookByISBN(isbnText);
             } else {
                 JOptionPane.showMessageDialog(this, "Enter Book ID or ISBN to find the book.", "Find", JOptionPane.WARNING_MESSAGE);
                 return;
             }
 
-            if (book == null) {
-                JOptionPane.showMessageDialog(this, "Book not found in database.", "Not found", JOptionPane.INFORMATION_MESSAGE);
-                return;
-            }
+            UiTasks.run(this, lookup, book -> {
+                if (book == null) {
+                    JOptionPane.showMessageDialog(this, "Book not found in database.", "Not found", JOptionPane.INFORMATION_MESSAGE);
+                    return;
+                }
 
-            // populate fields
-            idField.setText(String.valueOf(book[0]));
-            isbnField.setText(String.valueOf(book[1]));
-            titleField.setText(String.valueOf(book[2]));
-            authorField.setText(String.valueOf(book[3]));
-            categoryBox.setSelectedItem(book[4] == null ? "Select..." : String.valueOf(book[4]));
-            publisherField.setText(String.valueOf(book[5]));
-            yearField.setText(String.valueOf(book[6]));
-            editionField.setText(String.valueOf(book[7]));
-            quantityField.setText(String.valueOf(book[8]));
-            availableField.setText(String.valueOf(book[9]));
+                // populate fields
+                idField.setText(String.valueOf(book[0]));
+                isbnField.setText(String.valueOf(book[1]));
+                titleField.setText(String.valueOf(book[2]));
+                authorField.setText(String.valueOf(book[3]));
+                categoryBox.setSelectedItem(book[4] == null ? "Select..." : String.valueOf(book[4]));
+                publisherField.setText(String.valueOf(book[5]));
+                yearField.setText(String.valueOf(book[6]));
+                editionField.setText(String.valueOf(book[7]));
+                quantityField.setText(String.valueOf(book[8]));
+                availableField.setText(String.valueOf(book[9]));
+            }, findBtn, saveBtn);
         });
 
         saveBtn.addActionListener(e -> {
@@ -1072,13 +1989,14 @@ class EditBooksPage extends JFrame {
             }
 
             int id = Integer.parseInt(idText);
-            boolean ok = DBHelper.updateBook(id, isbn, title, author, category, publisher, year, edition, qty, avail);
-            if (ok) {
-                JOptionPane.showMessageDialog(this, "Book updated successfully.");
-                dispose();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to update book. See console for details.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            UiTasks.run(this, () -> DBHelper.updateBook(id, isbn, title, author, category, publisher, year, edition, qty, avail), ok -> {
+                if (ok) {
+                    JOptionPane.showMessageDialog(this, "Book updated successfully.");
+                    dispose();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to update book. See console for details.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, findBtn, saveBtn);
         });
 
         setVisible(true);
@@ -1100,20 +2018,10 @@ class DeleteBooksPage extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
         // Background (optional)
-        ImageIcon bgRaw = new ImageIcon("00.jpg");
-        Image bgScaled = bgRaw.getImage().getScaledInstance(720, 560, Image.SCALE_SMOOTH);
-        JLabel bgLabel = new JLabel(new ImageIcon(bgScaled));
+        JLabel bgLabel = BackgroundImageCache.label(this, 720, 560); // rescales itself on resize
         bgLabel.setLayout(new GridBagLayout());
         add(bgLabel);
 
-        addComponentListener(new java.awt.event.ComponentAdapter() {
-            public void componentResized(java.awt.event.ComponentEvent evt) {
-                ImageIcon ri = new ImageIcon("00.jpg");
-                Image sc = ri.getImage().getScaledInstance(getWidth(), getHeight(), Image.SCALE_SMOOTH);
-                bgLabel.setIcon(new ImageIcon(sc));
-            }
-        });
-
         JPanel p = new JPanel(new GridBagLayout());
         p.setBackground(new Color(255,255,255,220));
         p.setBorder(BorderFactory.createEmptyBorder(12,12,12,12));
@@ -1194,38 +2102,40 @@ class DeleteBooksPage extends JFrame {
             String idText = idField.getText().trim();
             String isbn = isbnField.getText().trim();
 
-            Object[] book = null;
+            UiTasks.Work<Object[]> lookup;
             if (!idText.isEmpty()) {
                 try {
                     int id = Integer.parseInt(idText);
-                    book = DBHelper.getBookById(id);
+                    lookup = () -> DBHelper.getBookById(id);
                 } catch (NumberFormatException ex) {
                     JOptionPane.showMessageDialog(this, "Book ID must be numeric.", "Invalid ID", JOptionPane.WARNING_MESSAGE);
                     return;
                 }
             } else if (!isbn.isEmpty()) {
-                book = DBHelper.getBookByISBN(isbn);
+                lookup = () -> DBHelper.getBookByISBN(isbn);
             } else {
                 JOptionPane.showMessageDialog(this, "Enter Book ID or ISBN to find the book.", "Find", JOptionPane.WARNING_MESSAGE);
                 return;
             }
 
-            if (book == null) {
-                JOptionPane.showMessageDialog(this, "Book not found.", "Find", JOptionPane.INFORMATION_MESSAGE);
-                return;
-            }
+            UiTasks.run(this, lookup, book -> {
+                if (book == null) {
+                    JOptionPane.showMessageDialog(this, "Book not found.", "Find", JOptionPane.INFORMATION_MESSAGE);
+                    return;
+                }
 
-            // populate fields in the order you asked
-            idField.setText(String.valueOf(book[0]));
-            isbnField.setText(String.valueOf(book[1]));
-            titleField.setText(String.valueOf(book[2]));
-            authorField.setText(String.valueOf(book[3]));
-            categoryBox.setSelectedItem(book[4] == null ? "" : String.valueOf(book[4]));
-            publisherField.setText(String.valueOf(book[5]));
-            yearField.setText(String.valueOf(book[6]));
-            quantityField.setText(String.valueOf(book[8]));
-            availableField.setText(String.valueOf(book[9]));
-            editionField.setText(String.valueOf(book[7]));
+                // populate fields in the order you asked
+                idField.setText(String.valueOf(book[0]));
+                isbnField.setText(String.valueOf(book[1]));
+                titleField.setText(String.valueOf(book[2]));
+                authorField.setText(String.valueOf(book[3]));
+                categoryBox.setSelectedItem(book[4] == null ? "" : String.valueOf(book[4]));
+                publisherField.setText(String.valueOf(book[5]));
+                yearField.setText(String.valueOf(book[6]));
+                quantityField.setText(String.valueOf(book[8]));
+                availableField.setText(String.valueOf(book[9]));
+                editionField.setText(String.valueOf(book[7]));
+            }, findBtn, deleteBtn);
         });
 
         // Delete action (confirmed)
@@ -1249,13 +2159,14 @@ class DeleteBooksPage extends JFrame {
 
             if (confirm != JOptionPane.YES_OPTION) return;
 
-            boolean ok = DBHelper.deleteBookById(id);
-            if (ok) {
-                JOptionPane.showMessageDialog(this, "Book deleted successfully.");
-                dispose();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to delete book. Check console for errors.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            UiTasks.run(this, () -> DBHelper.deleteBookById(id), ok -> {
+                if (ok) {
+                    JOptionPane.showMessageDialog(this, "Book deleted successfully.");
+                    dispose();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to delete book. Check console for errors.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, findBtn, deleteBtn);
         });
 
         setVisible(true);
@@ -1266,9 +2177,23 @@ class DeleteBooksPage extends JFrame {
 class SearchBooksPage extends JFrame {
     private JTable table;
     private JTextField searchField;
-    private DefaultTableModel model;
+    private LazyBooksTableModel model; // ids up front, rows fetched in blocks as the table scrolls
+    private JLabel countLabel;
+    private final UiTasks.Slot searchTask = new UiTasks.Slot(); // a new search supersedes the running one
     private String callerRole = "user";
 
+    // search as you type: a query runs once typing pauses for this long (-Dlms.ui.debounceMs)
+    static final int DEBOUNCE_MILLIS = Integer.getInteger("lms.ui.debounceMs", 250);
+    private final Timer debounce = new Timer(DEBOUNCE_MILLIS, e -> load(searchField.getText().trim()));
+    private HeaderSort sort;   // header click: the ids are re-read in that order
+    private String requested;  // keyword + order of the latest load, to skip repeats (e.g. a trailing space)
+    private long typedAt;      // System.nanoTime() of the keystroke or click the latest load answers
+
+    // edits, deletes, issues and returns elsewhere update the rows on screen in place
+    private final DBHelper.ChangeListener bookChanges = (t, change, id) -> {
+        if ("books".equals(t) && model != null) model.applyChange(change, id);
+    };
+
     public SearchBooksPage(String role) {
         this.callerRole = role == null ? "user" : role;
         initUI();
@@ -1294,12 +2219,19 @@ class SearchBooksPage extends JFrame {
 
         add(top, BorderLayout.NORTH);
 
-        model = DBHelper.getAllBooksTableModel();
-        table = new JTable(model);
+        table = new JTable();
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        table.setAutoCreateRowSorter(true);
+        // no row sorter: sorting client-side would read every block; SQLite returns the ids in order instead
+        sort = new HeaderSort(table, DBHelper.BOOK_SORT, (col, asc) -> {
+            typedAt = System.nanoTime();
+            load(searchField.getText().trim());
+        });
+        countLabel = new JLabel();
+        typedAt = System.nanoTime();
+        load("");
 
         add(new JScrollPane(table), BorderLayout.CENTER);
+        add(countLabel, BorderLayout.SOUTH);
 
         // double-click -> open details (read-only for user, edit for admin/librarian)
         table.addMouseListener(new java.awt.event.MouseAdapter() {
@@ -1308,52 +2240,104 @@ class SearchBooksPage extends JFrame {
                     int r = table.getSelectedRow();
                     if (r == -1) return;
                     int modelRow = table.convertRowIndexToModel(r);
-                    int bookId = (int) model.getValueAt(modelRow, 0);
-                    Object[] book = DBHelper.getBookById(bookId);
-                    if (book == null) return;
-                    if ("user".equalsIgnoreCase(callerRole)) {
-                        // Open read-only details for user
-                        ReadDetailsPage details = new ReadDetailsPage();
-                        SwingUtilities.invokeLater(() -> details.populateBook(book));
-                    } else {
-                        // Open edit page for admin/librarian
-                        EditBooksPage edit = new EditBooksPage(callerRole);
-                        SwingUtilities.invokeLater(() -> {
-                            try {
-                                edit.idField.setText(String.valueOf(book[0]));
-                                edit.isbnField.setText(String.valueOf(book[1]));
-                                edit.titleField.setText(String.valueOf(book[2]));
-                                edit.authorField.setText(String.valueOf(book[3]));
-                                edit.categoryBox.setSelectedItem(String.valueOf(book[4]));
-                                edit.publisherField.setText(String.valueOf(book[5]));
-                                edit.yearField.setText(String.valueOf(book[6]));
-                                edit.editionField.setText(String.valueOf(book[7]));
-                                edit.quantityField.setText(String.valueOf(book[8]));
-                                edit.availableField.setText(String.valueOf(book[9]));
-                            } catch (Exception ex) { ex.printStackTrace(); }
-                        });
-                    }
+                    int bookId = model.getBookId(modelRow);
+                    UiTasks.run(SearchBooksPage.this, () -> DBHelper.getBookById(bookId), book -> openBook(book));
                 }
             }
         });
 
+        debounce.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { typed(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { typed(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { typed(); }
+        });
+
         searchBtn.addActionListener(e -> {
-            String kw = searchField.getText().trim();
-            if (kw.isEmpty()) model = DBHelper.getAllBooksTableModel();
-            else model = DBHelper.searchBooksTableModel(kw);
-            table.setModel(model);
-            table.setAutoCreateRowSorter(true);
+            typedAt = System.nanoTime();
+            requested = null; // explicit search: run it even if the keyword did not change
+            load(searchField.getText().trim());
         });
 
         refreshBtn.addActionListener(e -> {
             searchField.setText("");
-            model = DBHelper.getAllBooksTableModel();
-            table.setModel(model);
-            table.setAutoCreateRowSorter(true);
+            typedAt = System.nanoTime();
+            requested = null;
+            load("");
+        });
+
+        DBHelper.addChangeListener(bookChanges);
+        addWindowListener(new WindowAdapter() {
+            public void windowClosed(WindowEvent e) {
+                debounce.stop();
+                searchTask.cancel();
+                DBHelper.removeChangeListener(bookChanges);
+            }
         });
 
         setVisible(true);
     }
+
+    private void typed() {
+        typedAt = System.nanoTime();
+        debounce.restart();
+    }
+
+    // reads the id list in the background; an empty keyword lists every book.
+    // A keyword that extends the one on screen narrows that result in memory; otherwise the query runs,
+    // and a newer load interrupts it.
+    private void load(String kw) {
+        debounce.stop();
+        int sortColumn = sort.column();
+        boolean ascending = sort.ascending();
+        String key = sortColumn + (ascending ? "+:" : "-:") + kw;
+        if (key.equals(requested)) return;
+        requested = key;
+        long started = typedAt;
+        LazyBooksTableModel shown = model != null && model.sortedBy(sortColumn, ascending) ? model : null;
+        DBHelper.QueryCancel cancel = new DBHelper.QueryCancel();
+        countLabel.setText(" Searching...");
+        UiTasks.Task<LazyBooksTableModel> task = searchTask.submit(this, () -> {
+            LazyBooksTableModel narrowed = shown == null || kw.isEmpty() ? null : shown.refine(kw);
+            if (narrowed != null) return narrowed;
+            return kw.isEmpty() ? LazyBooksTableModel.allBooks(sortColumn, ascending)
+                    : LazyBooksTableModel.search(kw, cancel, sortColumn, ascending);
+        }, m -> showModel(m, started));
+        task.onCancel(cancel::cancel);
+    }
+
+    private void openBook(Object[] book) {
+        if (book == null) return;
+        if ("user".equalsIgnoreCase(callerRole)) {
+            // Open read-only details for user
+            ReadDetailsPage details = new ReadDetailsPage();
+            SwingUtilities.invokeLater(() -> details.populateBook(book));
+        } else {
+            // Open edit page for admin/librarian
+            EditBooksPage edit = new EditBooksPage(callerRole);
+            SwingUtilities.invokeLater(() -> {
+                try {
+                    edit.idField.setText(String.valueOf(book[0]));
+                    edit.isbnField.setText(String.valueOf(book[1]));
+                    edit.titleField.setText(String.valueOf(book[2]));
+                    edit.authorField.setText(String.valueOf(book[3]));
+                    edit.categoryBox.setSelectedItem(String.valueOf(book[4]));
+                    edit.publisherField.setText(String.valueOf(book[5]));
+                    edit.yearField.setText(String.valueOf(book[6]));
+                    edit.editionField.setText(String.valueOf(book[7]));
+                    edit.quantityField.setText(String.valueOf(book[8]));
+                    edit.availableField.setText(String.valueOf(book[9]));
+                } catch (Exception ex) { ex.printStackTrace(); }
+            });
+        }
+    }
+
+    private void showModel(LazyBooksTableModel m, long started) {
+        model = m;
+        table.setModel(m);
+        countLabel.setText(String.format(" %d books  (%d ms%s)", m.getRowCount(),
+                (System.nanoTime() - started) / 1_000_000, m.refined ? ", narrowed" : ""));
+    }
 }
 
 /* ---------------- Manage Librarians: Panel + Window ---------------- */
@@ -1377,11 +2361,17 @@ class ManageLibrariansPanel extends JPanel {
     private JComboBox<String> cbGender, cbStatus;
     private JFormattedTextField txtDateJoining;
     private JLabel lblPhotoPreview;
-    private byte[] currentPhotoBytes = null; // holds photo bytes for current record
+    private byte[] currentPhotoBytes = null; // a photo picked from a file; a stored photo is only shown as its thumbnail
+    private boolean photoChanged;            // picked or cleared since the record was selected: saved on update
     private JTable table;
-    private DefaultTableModel tableModel;
+    private ColumnarTableModel tableModel;
     private JTextField txtSearch;
     private JLabel lblCount;
+    private JButton btnAdd, btnUpdate, btnDelete; // disabled while a write runs
+    private final LoadMore pager = new LoadMore(DBHelper::loadLibrariansPage);
+    private final UiTasks.Slot searchTask = new UiTasks.Slot();
+    private final UiTasks.Slot selectTask = new UiTasks.Slot(); // clicking through rows: only the last one fills the form
+    private TableSync sync; // adds, updates and deletes show up in place
 
     private static final String DB_URL = "jdbc:sqlite:library.db";
 
@@ -1389,7 +2379,7 @@ class ManageLibrariansPanel extends JPanel {
         setLayout(new BorderLayout(10,10));
         setBorder(new EmptyBorder(10,10,10,10));
         buildUI();
-        DBHelper.createLibrariansTableIfNotExists();
+        DBHelper.initialize();
         loadTableData("");
     }
 
@@ -1472,6 +2462,7 @@ class ManageLibrariansPanel extends JPanel {
         lblPhotoPreview.setBorder(BorderFactory.createLineBorder(Color.GRAY));
         lblPhotoPreview.setHorizontalAlignment(SwingConstants.CENTER);
         lblPhotoPreview.setText("No Photo");
+        lblPhotoPreview.setToolTipText("Double-click to view the full-size photo");
         photoPanel.add(lblPhotoPreview, BorderLayout.CENTER);
 
         JButton btnLoadPhoto = new JButton("Load Photo...");
@@ -1488,9 +2479,9 @@ class ManageLibrariansPanel extends JPanel {
 
         // Buttons: Add, Update, Delete, Clear
         JPanel buttons = new JPanel(new GridLayout(1,4,8,8));
-        JButton btnAdd = new JButton("Add");
-        JButton btnUpdate = new JButton("Update");
-        JButton btnDelete = new JButton("Delete");
+        btnAdd = new JButton("Add");
+        btnUpdate = new JButton("Update");
+        btnDelete = new JButton("Delete");
         JButton btnClear = new JButton("Clear");
         buttons.add(btnAdd);
         buttons.add(btnUpdate);
@@ -1518,44 +2509,45 @@ class ManageLibrariansPanel extends JPanel {
 
         right.add(searchRow, BorderLayout.NORTH);
 
-        tableModel = new DefaultTableModel(new String[]{
-                "ID","Full Name","Username","Email","Phone","Joining Date","Status"
-        }, 0) {
-            public boolean isCellEditable(int row, int col) { return false; }
-        };
+        tableModel = DBHelper.newLibrariansTableModel();
         table = new JTable(tableModel);
+        sync = new TableSync("librarians", table);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         JScrollPane tableScroll = new JScrollPane(table);
         right.add(tableScroll, BorderLayout.CENTER);
 
         // bottom: record count
         lblCount = new JLabel("0 records");
-        right.add(lblCount, BorderLayout.SOUTH);
+        JPanel countRow = new JPanel(new BorderLayout(6,6));
+        countRow.add(lblCount, BorderLayout.CENTER);
+        countRow.add(pager.button, BorderLayout.EAST);
+        pager.onLoaded(() -> lblCount.setText(tableModel.getRowCount() + (pager.hasMore() ? " records shown" : " records")));
+        right.add(countRow, BorderLayout.SOUTH);
 
         add(right, BorderLayout.CENTER);
 
         // Wire actions
         btnLoadPhoto.addActionListener(e -> loadPhoto());
-        btnClearPhoto.addActionListener(e -> { currentPhotoBytes = null; lblPhotoPreview.setIcon(null); lblPhotoPreview.setText("No Photo"); });
+        btnClearPhoto.addActionListener(e -> { currentPhotoBytes = null; photoChanged = true; showPreview(null); });
+        lblPhotoPreview.addMouseListener(new MouseAdapter() {
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) viewFullPhoto();
+            }
+        });
 
         btnAdd.addActionListener(e -> {
             if (validateForAdd()) {
                 addLibrarian();
-                loadTableData(txtSearch.getText().trim());
             }
         });
 
         btnUpdate.addActionListener(e -> {
             if (validateForUpdate()) {
                 updateLibrarian();
-                loadTableData(txtSearch.getText().trim());
             }
         });
 
-        btnDelete.addActionListener(e -> {
-            deleteSelectedLibrarian();
-            loadTableData(txtSearch.getText().trim());
-        });
+        btnDelete.addActionListener(e -> deleteSelectedLibrarian());
 
         btnClear.addActionListener(e -> clearForm());
 
@@ -1582,18 +2574,19 @@ class ManageLibrariansPanel extends JPanel {
     }
 
     private void loadTableData(String search) {
-        tableModel.setRowCount(0);
-        DefaultTableModel model;
-        if (search == null || search.trim().isEmpty()) model = DBHelper.getAllLibrariansTableModel();
-        else model = DBHelper.searchLibrariansTableModel(search);
-        // copy rows from model to our tableModel (to keep same columns)
-        for (int r = 0; r < model.getRowCount(); r++) {
-            Vector<?> v = (Vector<?>) model.getDataVector().get(r);
-            tableModel.addRow(new Object[]{
-                    v.get(0), v.get(1), v.get(2), v.get(3), v.get(4), v.get(5), v.get(6)
-            });
+        if (search == null || search.trim().isEmpty()) {
+            searchTask.cancel();
+            pager.reset(tableModel); // newest librarians first, one page at a time
+            sync.follow(tableModel, true);
+            return;
         }
-        lblCount.setText(tableModel.getRowCount() + " records");
+        pager.stop();
+        sync.follow(tableModel, false);
+        searchTask.submit(this, () -> DBHelper.searchLibrariansTableModel(search), model -> {
+            tableModel.setRowCount(0);
+            tableModel.addRows(model); // same columns, one table event
+            lblCount.setText(tableModel.getRowCount() + " records");
+        });
     }
 
     private void addLibrarian() {
@@ -1608,11 +2601,14 @@ class ManageLibrariansPanel extends JPanel {
         String shift = txtShift.getText().trim();
         String status = (String) cbStatus.getSelectedItem();
 
-        boolean ok = DBHelper.insertLibrarian(fullName, username, password, email, phone, address, gender, dateJoining, shift, status, currentPhotoBytes);
-        if (ok) {
-            JOptionPane.showMessageDialog(this, "Librarian added.");
-            clearForm();
-        } else showError("Add failed. Check console.");
+        byte[] photo = currentPhotoBytes;
+
+        UiTasks.run(this, () -> DBHelper.insertLibrarian(fullName, username, password, email, phone, address, gender, dateJoining, shift, status, photo), ok -> {
+            if (ok) {
+                JOptionPane.showMessageDialog(this, "Librarian added.");
+                clearForm();
+            } else showError("Add failed. Check console.");
+        }, btnAdd, btnUpdate, btnDelete);
     }
 
     private void updateLibrarian() {
@@ -1629,11 +2625,16 @@ class ManageLibrariansPanel extends JPanel {
         String shift = txtShift.getText().trim();
         String status = (String) cbStatus.getSelectedItem();
 
-        boolean ok = DBHelper.updateLibrarian(id, fullName, username, password, email, phone, address, gender, dateJoining, shift, status, currentPhotoBytes);
-        if (ok) {
-            JOptionPane.showMessageDialog(this, "Updated.");
-            clearForm();
-        } else showError("Update failed. Check console.");
+        byte[] photo = currentPhotoBytes;
+        boolean newPhoto = photoChanged;
+
+        UiTasks.run(this, () -> DBHelper.updateLibrarian(id, fullName, username, password, email, phone, address, gender, dateJoining, shift, status,
+                photo, newPhoto), ok -> {
+            if (ok) {
+                JOptionPane.showMessageDialog(this, "Updated.");
+                clearForm();
+            } else showError("Update failed. Check console.");
+        }, btnAdd, btnUpdate, btnDelete);
     }
 
     private void deleteSelectedLibrarian() {
@@ -1642,19 +2643,29 @@ class ManageLibrariansPanel extends JPanel {
         int id = (int) tableModel.getValueAt(row, 0);
         int confirm = JOptionPane.showConfirmDialog(this, "Delete librarian ID " + id + " ?", "Confirm", JOptionPane.YES_NO_OPTION);
         if (confirm != JOptionPane.YES_OPTION) return;
-        boolean ok = DBHelper.deleteLibrarian(id);
-        if (ok) {
-            JOptionPane.showMessageDialog(this, "Deleted.");
-            clearForm();
-        } else showError("Delete failed.");
+        UiTasks.run(this, () -> DBHelper.deleteLibrarian(id), ok -> {
+            if (ok) {
+                JOptionPane.showMessageDialog(this, "Deleted.");
+                clearForm();
+            } else showError("Delete failed.");
+        }, btnAdd, btnUpdate, btnDelete);
     }
 
     private void fillFormFromSelected() {
         int row = table.getSelectedRow();
         if (row < 0) return;
         int id = (int) tableModel.getValueAt(row, 0);
-        Object[] rec = DBHelper.getLibrarianById(id);
-        if (rec == null) return;
+        // the record with its thumbnail (a few KB), decoded in the background
+        selectTask.submit(this, () -> {
+            Object[] rec = DBHelper.getLibrarianById(id);
+            BufferedImage thumb = rec == null ? null : LibrarianPhotos.decode((byte[]) rec[11]);
+            return rec == null ? null : new Object[]{rec, thumb};
+        }, loaded -> {
+            if (loaded != null) fillForm((Object[]) loaded[0], (BufferedImage) loaded[1]);
+        });
+    }
+
+    private void fillForm(Object[] rec, BufferedImage thumb) {
         txtId.setText(String.valueOf(rec[0]));
         txtFullName.setText((String) rec[1]);
         txtUsername.setText((String) rec[2]);
@@ -1666,16 +2677,30 @@ class ManageLibrariansPanel extends JPanel {
         txtDateJoining.setText(rec[8] == null ? "" : (String) rec[8]);
         txtShift.setText(rec[9] == null ? "" : (String) rec[9]);
         cbStatus.setSelectedItem(rec[10] == null ? "Active" : (String) rec[10]);
-        currentPhotoBytes = (byte[]) rec[11];
-        if (currentPhotoBytes != null && currentPhotoBytes.length > 0) {
-            ImageIcon icon = new ImageIcon(currentPhotoBytes);
-            Image img = icon.getImage().getScaledInstance(lblPhotoPreview.getWidth(), lblPhotoPreview.getHeight(), Image.SCALE_SMOOTH);
-            lblPhotoPreview.setIcon(new ImageIcon(img));
-            lblPhotoPreview.setText("");
-        } else {
-            lblPhotoPreview.setIcon(null);
-            lblPhotoPreview.setText("No Photo");
-        }
+        currentPhotoBytes = null;
+        photoChanged = false;
+        showPreview(thumb);
+    }
+
+    private void showPreview(Image img) {
+        lblPhotoPreview.setIcon(img == null ? null : new ImageIcon(img));
+        lblPhotoPreview.setText(img == null ? "No Photo" : "");
+    }
+
+    // the original is read only here, on request
+    private void viewFullPhoto() {
+        String idText = txtId.getText().trim();
+        if (!photoChanged && idText.isEmpty()) return;
+        byte[] picked = currentPhotoBytes;
+        boolean fromForm = photoChanged;
+        UiTasks.run(this, () -> {
+            byte[] bytes = fromForm ? picked : LibrarianPhotos.loadOriginal(Integer.parseInt(idText));
+            BufferedImage img = LibrarianPhotos.decode(bytes);
+            return img == null ? null : LibrarianPhotos.fit(img, 900, 650);
+        }, img -> {
+            if (img == null) { JOptionPane.showMessageDialog(this, "No photo."); return; }
+            JOptionPane.showMessageDialog(this, new JLabel(new ImageIcon(img)), "Photo", JOptionPane.PLAIN_MESSAGE);
+        });
     }
 
     // Photo loader
@@ -1685,15 +2710,18 @@ class ManageLibrariansPanel extends JPanel {
         int ret = chooser.showOpenDialog(this);
         if (ret != JFileChooser.APPROVE_OPTION) return;
         File f = chooser.getSelectedFile();
-        try {
-            currentPhotoBytes = readFileToBytes(f);
-            ImageIcon icon = new ImageIcon(currentPhotoBytes);
-            Image img = icon.getImage().getScaledInstance(lblPhotoPreview.getWidth(), lblPhotoPreview.getHeight(), Image.SCALE_SMOOTH);
-            lblPhotoPreview.setIcon(new ImageIcon(img));
-            lblPhotoPreview.setText("");
-        } catch (IOException ex) {
-            showError("Image load error: " + ex.getMessage());
-        }
+        // read, decode and scale off the EDT; the thumbnail stored on save is made the same way
+        selectTask.cancel();
+        UiTasks.run(this, () -> {
+            byte[] bytes = readFileToBytes(f);
+            BufferedImage img = LibrarianPhotos.decode(bytes);
+            if (img == null) throw new IOException(f.getName() + " is not a readable image");
+            return new Object[]{bytes, LibrarianPhotos.fit(img, LibrarianPhotos.THUMB_WIDTH, LibrarianPhotos.THUMB_HEIGHT)};
+        }, loaded -> {
+            currentPhotoBytes = (byte[]) loaded[0];
+            photoChanged = true;
+            showPreview((BufferedImage) loaded[1]);
+        });
     }
 
     private static byte[] readFileToBytes(File f) throws IOException {
@@ -1718,9 +2746,10 @@ class ManageLibrariansPanel extends JPanel {
         txtDateJoining.setValue(new Date());
         txtShift.setText("");
         cbStatus.setSelectedIndex(0);
+        selectTask.cancel();
         currentPhotoBytes = null;
-        lblPhotoPreview.setIcon(null);
-        lblPhotoPreview.setText("No Photo");
+        photoChanged = false;
+        showPreview(null);
         table.clearSelection();
     }
 
@@ -1894,23 +2923,25 @@ class IssueBooksPage extends JFrame {
             if (idText.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter Book ID first."); return; }
             try {
                 int id = Integer.parseInt(idText);
-                Object[] book = DBHelper.getBookById(id);
-                if (book == null) { JOptionPane.showMessageDialog(this, "Book not found."); return; }
-                bookTitleField.setText(String.valueOf(book[2]));
-                int avail = (int) book[9];
-                if (avail <= 0) JOptionPane.showMessageDialog(this, "Warning: No available copies currently.");
+                UiTasks.run(this, () -> DBHelper.getBookById(id), book -> {
+                    if (book == null) { JOptionPane.showMessageDialog(this, "Book not found."); return; }
+                    bookTitleField.setText(String.valueOf(book[2]));
+                    int avail = (int) book[9];
+                    if (avail <= 0) JOptionPane.showMessageDialog(this, "Warning: No available copies currently.");
+                }, findBookByIdBtn);
             } catch (NumberFormatException ex) { JOptionPane.showMessageDialog(this, "Book ID must be numeric."); }
         });
 
         findBookByIsbnBtn.addActionListener(ae -> {
             String isbn = isbnField.getText().trim();
             if (isbn.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter ISBN first."); return; }
-            Object[] book = DBHelper.getBookByISBN(isbn);
-            if (book == null) { JOptionPane.showMessageDialog(this, "Book not found by ISBN."); return; }
-            bookIdField.setText(String.valueOf(book[0]));
-            bookTitleField.setText(String.valueOf(book[2]));
-            int avail = (int) book[9];
-            if (avail <= 0) JOptionPane.showMessageDialog(this, "Warning: No available copies currently.");
+            UiTasks.run(this, () -> DBHelper.getBookByISBN(isbn), book -> {
+                if (book == null) { JOptionPane.showMessageDialog(this, "Book not found by ISBN."); return; }
+                bookIdField.setText(String.valueOf(book[0]));
+                bookTitleField.setText(String.valueOf(book[2]));
+                int avail = (int) book[9];
+                if (avail <= 0) JOptionPane.showMessageDialog(this, "Warning: No available copies currently.");
+            }, findBookByIsbnBtn);
         });
 
         findUserByIdBtn.addActionListener(ae -> {
@@ -1918,20 +2949,22 @@ class IssueBooksPage extends JFrame {
             if (utext.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter User ID first."); return; }
             try {
                 int uid = Integer.parseInt(utext);
-                Object[] user = DBHelper.getUserById(uid);
-                if (user == null) { JOptionPane.showMessageDialog(this, "User not found."); return; }
-                usernameField.setText(String.valueOf(user[2]));
-                userNameField.setText(String.valueOf(user[1]));
+                UiTasks.run(this, () -> DBHelper.getUserById(uid), user -> {
+                    if (user == null) { JOptionPane.showMessageDialog(this, "User not found."); return; }
+                    usernameField.setText(String.valueOf(user[2]));
+                    userNameField.setText(String.valueOf(user[1]));
+                }, findUserByIdBtn);
             } catch (NumberFormatException ex) { JOptionPane.showMessageDialog(this, "User ID must be numeric."); }
         });
 
         findUserByUsernameBtn.addActionListener(ae -> {
             String un = usernameField.getText().trim();
             if (un.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter Username first."); return; }
-            Object[] user = DBHelper.getUserByUsername(un);
-            if (user == null) { JOptionPane.showMessageDialog(this, "User not found."); return; }
-            userIdField.setText(String.valueOf(user[0]));
-            userNameField.setText(String.valueOf(user[1]));
+            UiTasks.run(this, () -> DBHelper.getUserByUsername(un), user -> {
+                if (user == null) { JOptionPane.showMessageDialog(this, "User not found."); return; }
+                userIdField.setText(String.valueOf(user[0]));
+                userNameField.setText(String.valueOf(user[1]));
+            }, findUserByUsernameBtn);
         });
 
         btnIssue.addActionListener(ae -> {
@@ -1957,19 +2990,17 @@ class IssueBooksPage extends JFrame {
                 JOptionPane.showMessageDialog(this, "Book ID and User ID must be numeric.");
                 return;
             }
-            // attempt insert
-            boolean ok = DBHelper.insertIssue(bookId, bTitle, userId, uName, issueDate, dueDate, issuedBy, remarks);
-            if (ok) {
-                JOptionPane.showMessageDialog(this, "Book issued successfully.");
-                // optional: refresh form, set issue id by fetching latest (simplest: fetch all issues and get first row id)
-                DefaultTableModel issuesModel = DBHelper.getAllIssuesTableModel();
-                if (issuesModel.getRowCount() > 0) {
-                    Object latestId = issuesModel.getValueAt(0, 0);
-                    issueIdField.setText(String.valueOf(latestId));
+            // attempt insert in the background; btnIssue stays disabled until it finishes (no double issue)
+            // the result carries the new issue id, so the form is filled without reading the issues table
+            UiTasks.run(this, () -> DBHelper.insertIssue(bookId, bTitle, userId, uName, issueDate, dueDate, issuedBy, remarks), result -> {
+                if (result.ok) {
+                    issueIdField.setText(String.valueOf(result.issueId));
+                    JOptionPane.showMessageDialog(this, "Book issued successfully (Issue ID " + result.issueId + ", "
+                            + result.available + " copies left).");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to issue book. " + result.error, "Error", JOptionPane.ERROR_MESSAGE);
                 }
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to issue book. Maybe no available copies.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            }, btnIssue);
         });
 
         btnClose.addActionListener(ae -> dispose());
@@ -2091,22 +3122,23 @@ class ReturnBooksPage extends JFrame {
             if (idt.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter Issue ID to find."); return; }
             int iid;
             try { iid = Integer.parseInt(idt); } catch (NumberFormatException ex) { JOptionPane.showMessageDialog(this, "Issue ID must be numeric."); return; }
-            Object[] issue = DBHelper.getIssueById(iid);
-            if (issue == null) { JOptionPane.showMessageDialog(this, "Issue not found."); return; }
-            // issue columns: id, book_id, book_title, user_id, user_name, issue_date, due_date, return_date, late_days, issued_by, remarks
-            bookIdField.setText(String.valueOf(issue[1]));
-            bookTitleField.setText(String.valueOf(issue[2]));
-            userIdField.setText(String.valueOf(issue[3]));
-            userNameField.setText(String.valueOf(issue[4]));
-            issueDateField.setText(String.valueOf(issue[5]));
-            dueDateField.setText(String.valueOf(issue[6]));
-            // show existing return_date if already returned
-            String existingReturn = issue[7] == null ? "" : String.valueOf(issue[7]);
-            if (!existingReturn.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "This issue already has a return date: " + existingReturn);
-            }
-            lateDaysField.setText(String.valueOf(issue[8]));
-            remarksArea.setText(issue[10] == null ? "" : String.valueOf(issue[10]));
+            UiTasks.run(this, () -> DBHelper.getIssueById(iid), issue -> {
+                if (issue == null) { JOptionPane.showMessageDialog(this, "Issue not found."); return; }
+                // issue columns: id, book_id, book_title, user_id, user_name, issue_date, due_date, return_date, late_days, issued_by, remarks
+                bookIdField.setText(String.valueOf(issue[1]));
+                bookTitleField.setText(String.valueOf(issue[2]));
+                userIdField.setText(String.valueOf(issue[3]));
+                userNameField.setText(String.valueOf(issue[4]));
+                issueDateField.setText(String.valueOf(issue[5]));
+                dueDateField.setText(String.valueOf(issue[6]));
+                // show existing return_date if already returned
+                String existingReturn = issue[7] == null ? "" : String.valueOf(issue[7]);
+                if (!existingReturn.isEmpty()) {
+                    JOptionPane.showMessageDialog(this, "This issue already has a return date: " + existingReturn);
+                }
+                lateDaysField.setText(String.valueOf(issue[8]));
+                remarksArea.setText(issue[10] == null ? "" : String.valueOf(issue[10]));
+            }, btnFind);
         });
 
         btnReturn.addActionListener(ae -> {
@@ -2119,27 +3151,20 @@ class ReturnBooksPage extends JFrame {
             String dueDateStr = dueDateField.getText().trim();
             if (returnDateStr.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter return date."); return; }
 
-            // parse dates and compute late days
-            DateFormat dfmt = new SimpleDateFormat("yyyy-MM-dd");
+            // parse dates and compute late days (calendar days: a DST change in between does not lose one)
             try {
-                Date rDate = dfmt.parse(returnDateStr);
-                Date dDate = dueDateStr == null || dueDateStr.trim().isEmpty() ? null : dfmt.parse(dueDateStr);
-                int lateDays = 0;
-                if (dDate != null) {
-                    long diff = rDate.getTime() - dDate.getTime();
-                    long days = java.util.concurrent.TimeUnit.MILLISECONDS.toDays(diff);
-                    lateDays = (int) Math.max(0, days);
-                }
+                int late = OverdueScanner.lateDays(dueDateStr, returnDateStr);
                 String rem = remarksArea.getText().trim();
-                boolean ok = DBHelper.returnIssue(iid, returnDateStr, lateDays, rem);
-                if (ok) {
-                    JOptionPane.showMessageDialog(this, "Return recorded. Late days: " + lateDays);
-                    // update lateDaysField and refresh
-                    lateDaysField.setText(String.valueOf(lateDays));
-                } else {
-                    JOptionPane.showMessageDialog(this, "Failed to record return. It might already be returned.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (ParseException ex) {
+                UiTasks.run(this, () -> DBHelper.returnIssue(iid, returnDateStr, late, rem), result -> {
+                    if (result.ok) {
+                        JOptionPane.showMessageDialog(this, "Return recorded. Late days: " + late + " (" + result.available + " copies now available)");
+                        // update lateDaysField and refresh
+                        lateDaysField.setText(String.valueOf(late));
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to record return. " + result.error, "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }, btnReturn, btnFind);
+            } catch (java.time.format.DateTimeParseException ex) {
                 JOptionPane.showMessageDialog(this, "Invalid date format. Use YYYY-MM-DD.");
             }
         });
@@ -2241,16 +3266,14 @@ class ReadDetailsPage extends JFrame {
             if (t.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter Book ID first."); return; }
             try {
                 int id = Integer.parseInt(t);
-                Object[] book = DBHelper.getBookById(id);
-                populateBook(book);
+                UiTasks.run(this, () -> DBHelper.getBookById(id), this::populateBook, btnFindById, btnFindByIsbn);
             } catch (NumberFormatException ex) { JOptionPane.showMessageDialog(this, "Book ID must be numeric."); }
         });
 
         btnFindByIsbn.addActionListener(ae -> {
             String t = isbnField.getText().trim();
             if (t.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter ISBN first."); return; }
-            Object[] book = DBHelper.getBookByISBN(t);
-            populateBook(book);
+            UiTasks.run(this, () -> DBHelper.getBookByISBN(t), this::populateBook, btnFindById, btnFindByIsbn);
         });
     }
 
@@ -2436,23 +3459,25 @@ class IssueReturnPage extends JFrame {
             if (t.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter Book ID first."); return; }
             try {
                 int id = Integer.parseInt(t);
-                Object[] book = DBHelper.getBookById(id);
-                if (book == null) { JOptionPane.showMessageDialog(this, "Book not found."); return; }
-                bTitleField.setText(String.valueOf(book[2]));
-                int avail = (int) book[9];
-                if (avail <= 0) JOptionPane.showMessageDialog(this, "No available copies currently.");
+                UiTasks.run(this, () -> DBHelper.getBookById(id), book -> {
+                    if (book == null) { JOptionPane.showMessageDialog(this, "Book not found."); return; }
+                    bTitleField.setText(String.valueOf(book[2]));
+                    int avail = (int) book[9];
+                    if (avail <= 0) JOptionPane.showMessageDialog(this, "No available copies currently.");
+                }, findById);
             } catch (NumberFormatException ex) { JOptionPane.showMessageDialog(this, "Book ID must be numeric."); }
         });
 
         findByIsbn.addActionListener(ae -> {
             String t = isbnField.getText().trim();
             if (t.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter ISBN first."); return; }
-            Object[] book = DBHelper.getBookByISBN(t);
-            if (book == null) { JOptionPane.showMessageDialog(this, "Book not found."); return; }
-            bIdField.setText(String.valueOf(book[0]));
-            bTitleField.setText(String.valueOf(book[2]));
-            int avail = (int) book[9];
-            if (avail <= 0) JOptionPane.showMessageDialog(this, "No available copies currently.");
+            UiTasks.run(this, () -> DBHelper.getBookByISBN(t), book -> {
+                if (book == null) { JOptionPane.showMessageDialog(this, "Book not found."); return; }
+                bIdField.setText(String.valueOf(book[0]));
+                bTitleField.setText(String.valueOf(book[2]));
+                int avail = (int) book[9];
+                if (avail <= 0) JOptionPane.showMessageDialog(this, "No available copies currently.");
+            }, findByIsbn);
         });
 
         // Find user
@@ -2461,20 +3486,22 @@ class IssueReturnPage extends JFrame {
             if (t.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter User ID first."); return; }
             try {
                 int uid = Integer.parseInt(t);
-                Object[] u = DBHelper.getUserById(uid);
-                if (u == null) { JOptionPane.showMessageDialog(this, "User not found."); return; }
-                usernameField.setText(String.valueOf(u[2]));
-                userNameField.setText(String.valueOf(u[1]));
+                UiTasks.run(this, () -> DBHelper.getUserById(uid), u -> {
+                    if (u == null) { JOptionPane.showMessageDialog(this, "User not found."); return; }
+                    usernameField.setText(String.valueOf(u[2]));
+                    userNameField.setText(String.valueOf(u[1]));
+                }, findUserById);
             } catch (NumberFormatException ex) { JOptionPane.showMessageDialog(this, "User ID must be numeric."); }
         });
 
         findUserByUsername.addActionListener(ae -> {
             String un = usernameField.getText().trim();
             if (un.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter username first."); return; }
-            Object[] u = DBHelper.getUserByUsername(un);
-            if (u == null) { JOptionPane.showMessageDialog(this, "User not found."); return; }
-            userIdField.setText(String.valueOf(u[0]));
-            userNameField.setText(String.valueOf(u[1]));
+            UiTasks.run(this, () -> DBHelper.getUserByUsername(un), u -> {
+                if (u == null) { JOptionPane.showMessageDialog(this, "User not found."); return; }
+                userIdField.setText(String.valueOf(u[0]));
+                userNameField.setText(String.valueOf(u[1]));
+            }, findUserByUsername);
         });
 
         btnRequestIssue.addActionListener(ae -> {
@@ -2495,12 +3522,14 @@ class IssueReturnPage extends JFrame {
             try { bookId = Integer.parseInt(bIdt); userId = Integer.parseInt(uIdt); }
             catch (NumberFormatException ex) { JOptionPane.showMessageDialog(this, "Book ID and User ID must be numeric."); return; }
 
-            boolean ok = DBHelper.insertIssue(bookId, bTitle, userId, uName, issueDate, dueDate, requestedBy, remarks);
-            if (ok) {
-                JOptionPane.showMessageDialog(this, "Issue request recorded. A librarian will process it.");
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to record issue request. Maybe no available copies.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            // btnRequestIssue stays disabled until the insert finishes (no double request)
+            UiTasks.run(this, () -> DBHelper.insertIssue(bookId, bTitle, userId, uName, issueDate, dueDate, requestedBy, remarks), result -> {
+                if (result.ok) {
+                    JOptionPane.showMessageDialog(this, "Issue request recorded (Issue ID " + result.issueId + "). A librarian will process it.");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to record issue request. " + result.error, "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, btnRequestIssue);
         });
 
         // Find issue for return
@@ -2509,18 +3538,19 @@ class IssueReturnPage extends JFrame {
             if (it.isEmpty()) { JOptionPane.showMessageDialog(this, "Enter Issue ID first."); return; }
             try {
                 int iid = Integer.parseInt(it);
-                Object[] iss = DBHelper.getIssueById(iid);
-                if (iss == null) { JOptionPane.showMessageDialog(this, "Issue not found."); return; }
-                // issue columns: id, book_id, book_title, user_id, user_name, issue_date, due_date, return_date, late_days, issued_by, remarks
-                rBookId.setText(String.valueOf(iss[1]));
-                rBookTitle.setText(String.valueOf(iss[2]));
-                rUserId.setText(String.valueOf(iss[3]));
-                rUserName.setText(String.valueOf(iss[4]));
-                rIssueDate.setText(String.valueOf(iss[5]));
-                rDueDate.setText(String.valueOf(iss[6]));
-                String existingReturn = iss[7] == null ? "" : String.valueOf(iss[7]);
-                if (!existingReturn.isEmpty()) JOptionPane.showMessageDialog(this, "This issue already returned on: " + existingReturn);
-                rLateDays.setText(String.valueOf(iss[8]));
+                UiTasks.run(this, () -> DBHelper.getIssueById(iid), iss -> {
+                    if (iss == null) { JOptionPane.showMessageDialog(this, "Issue not found."); return; }
+                    // issue columns: id, book_id, book_title, user_id, user_name, issue_date, due_date, return_date, late_days, issued_by, remarks
+                    rBookId.setText(String.valueOf(iss[1]));
+                    rBookTitle.setText(String.valueOf(iss[2]));
+                    rUserId.setText(String.valueOf(iss[3]));
+                    rUserName.setText(String.valueOf(iss[4]));
+                    rIssueDate.setText(String.valueOf(iss[5]));
+                    rDueDate.setText(String.valueOf(iss[6]));
+                    String existingReturn = iss[7] == null ? "" : String.valueOf(iss[7]);
+                    if (!existingReturn.isEmpty()) JOptionPane.showMessageDialog(this, "This issue already returned on: " + existingReturn);
+                    rLateDays.setText(String.valueOf(iss[8]));
+                }, findIssueBtn, btnRequestReturn);
             } catch (NumberFormatException ex) { JOptionPane.showMessageDialog(this, "Issue ID must be numeric."); }
         });
 
@@ -2534,24 +3564,17 @@ class IssueReturnPage extends JFrame {
             String dueDateStr = rDueDate.getText().trim();
 
             try {
-                DateFormat dfmt = new SimpleDateFormat("yyyy-MM-dd");
-                Date rDate = dfmt.parse(returnDateStr);
-                Date dDate = dueDateStr == null || dueDateStr.trim().isEmpty() ? null : dfmt.parse(dueDateStr);
-                int lateDays = 0;
-                if (dDate != null) {
-                    long diff = rDate.getTime() - dDate.getTime();
-                    long days = java.util.concurrent.TimeUnit.MILLISECONDS.toDays(diff);
-                    lateDays = (int) Math.max(0, days);
-                }
+                int lateDays = OverdueScanner.lateDays(dueDateStr, returnDateStr);
                 String rem = rRemarks.getText().trim();
-                boolean ok = DBHelper.returnIssue(iid, returnDateStr, lateDays, rem);
-                if (ok) {
-                    JOptionPane.showMessageDialog(this, "Return request recorded. Late days: " + lateDays);
-                    rLateDays.setText(String.valueOf(lateDays));
-                } else {
-                    JOptionPane.showMessageDialog(this, "Failed to record return. It might already be returned.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (ParseException ex) {
+                UiTasks.run(this, () -> DBHelper.returnIssue(iid, returnDateStr, lateDays, rem), result -> {
+                    if (result.ok) {
+                        JOptionPane.showMessageDialog(this, "Return request recorded. Late days: " + lateDays);
+                        rLateDays.setText(String.valueOf(lateDays));
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to record return. " + result.error, "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }, btnRequestReturn, findIssueBtn);
+            } catch (java.time.format.DateTimeParseException ex) {
                 JOptionPane.showMessageDialog(this, "Invalid date format. Use YYYY-MM-DD.");
             }
         });
@@ -2568,7 +3591,8 @@ class IssueReturnPage extends JFrame {
  */
 class MyIssueHistoryPage extends JFrame {
     private JTable table;
-    private DefaultTableModel model;
+    private ColumnarTableModel model;
+    private HeaderSort sort; // header click: the history is paged again in that order (no row sorter)
 
     public MyIssueHistoryPage() {
         setTitle("My Issue History");
@@ -2577,71 +3601,137 @@ class MyIssueHistoryPage extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
         JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 8));
-        JTextField filterField = new JTextField(30);
+        JTextField filterField = new JTextField(16);
+        JComboBox<DBHelper.IssueStatus> statusBox = new JComboBox<>(DBHelper.IssueStatus.values());
+        JTextField fromField = new JTextField(8);
+        JTextField toField = new JTextField(8);
+        fromField.setToolTipText("yyyy-MM-dd (optional)");
+        toField.setToolTipText("yyyy-MM-dd (optional)");
         JButton btnSearch = new JButton("Search (User ID or Username)");
         JButton btnRefresh = new JButton("Refresh (All)");
         top.add(new JLabel("Filter:"));
         top.add(filterField);
+        top.add(statusBox);
+        top.add(new JLabel("Issued from:"));
+        top.add(fromField);
+        top.add(new JLabel("to:"));
+        top.add(toField);
         top.add(btnSearch);
         top.add(btnRefresh);
 
         add(top, BorderLayout.NORTH);
 
-        model = DBHelper.getAllIssuesTableModel();
+        model = DBHelper.newIssuesTableModel();
         table = new JTable(model);
-        table.setAutoCreateRowSorter(true);
         add(new JScrollPane(table), BorderLayout.CENTER);
-
-        // bottom: status
-        JLabel lblStatus = new JLabel(model.getRowCount() + " records");
-        add(lblStatus, BorderLayout.SOUTH);
+        TableSync sync = new TableSync("issues", table); // new issues and returns show up in place
+
+        // bottom: status + next page of the listing (full history or one user's)
+        JLabel lblStatus = new JLabel();
+        boolean[] filtered = {false};
+        LoadMore.PageLoader allIssues = (into, token) -> DBHelper.loadIssuesPage(into, token, sort.column(), sort.ascending());
+        LoadMore pager = new LoadMore(allIssues);
+        pager.onLoaded(() -> lblStatus.setText(model.getRowCount() + (filtered[0] ? " records (filtered" + (pager.hasMore() ? ", more below)" : ")")
+                : !pager.hasMore() ? " records"
+                : sort.column() < 0 ? " records shown (newest first)" : " records shown (by " + model.getColumnName(sort.column()) + ")")));
+        JPanel bottom = new JPanel(new BorderLayout(8, 8));
+        bottom.add(lblStatus, BorderLayout.CENTER);
+        bottom.add(pager.button, BorderLayout.EAST);
+        add(bottom, BorderLayout.SOUTH);
+
+        // the full history, first page, in the header's order; new issues go on top only when that is newest first
+        Runnable showAll = () -> {
+            filtered[0] = false;
+            model = DBHelper.newIssuesTableModel();
+            table.setModel(model);
+            pager.reset(model, allIssues);
+            sync.follow(model, sort.column() < 0 || (sort.column() == 0 && !sort.ascending()));
+        };
+        sort = new HeaderSort(table, DBHelper.ISSUE_SORT, (col, asc) -> {
+            filterField.setText(""); // the sorted listing is the whole history
+            showAll.run();
+        });
+        showAll.run();
 
         setVisible(true);
 
-        btnRefresh.addActionListener(ae -> {
-            model = DBHelper.getAllIssuesTableModel();
-            table.setModel(model);
-            table.setAutoCreateRowSorter(true);
-            lblStatus.setText(model.getRowCount() + " records");
-        });
+        btnRefresh.addActionListener(ae -> showAll.run());
 
+        // one user's history, latest issue first, read through the (user_id, issue_date) index page by page
         btnSearch.addActionListener(ae -> {
             String q = filterField.getText().trim();
             if (q.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "Enter a User ID or Username to filter, or click Refresh to show all.");
                 return;
             }
-            DefaultTableModel all = DBHelper.getAllIssuesTableModel();
-            DefaultTableModel filtered = new DefaultTableModel(new String[]{
-                    "Issue ID", "Book ID", "Book Title", "User ID", "User Name", "Issue Date", "Due Date", "Return Date", "Late Days", "Issued By", "Remarks"
-            }, 0) {
-                public boolean isCellEditable(int r, int c) { return false; }
-            };
-            // if numeric, filter by user id; else by username substring (case-insensitive)
-            boolean numeric = true;
-            try { Integer.parseInt(q); } catch (NumberFormatException ex) { numeric = false; }
-            for (int i = 0; i < all.getRowCount(); i++) {
-                Object uid = all.getValueAt(i, 3);
-                Object uname = all.getValueAt(i, 4);
-                if (numeric) {
-                    if (String.valueOf(uid).equals(q)) filtered.addRow(getRowVector(all, i));
-                } else {
-                    if (uname != null && String.valueOf(uname).toLowerCase().contains(q.toLowerCase())) filtered.addRow(getRowVector(all, i));
-                }
+            String from = fromField.getText().trim();
+            String to = toField.getText().trim();
+            try {
+                if (!from.isEmpty()) java.time.LocalDate.parse(from);
+                if (!to.isEmpty()) java.time.LocalDate.parse(to);
+            } catch (java.time.format.DateTimeParseException ex) {
+                JOptionPane.showMessageDialog(this, "Dates must be yyyy-MM-dd.");
+                return;
             }
-            table.setModel(filtered);
-            table.setAutoCreateRowSorter(true);
-            lblStatus.setText(filtered.getRowCount() + " records (filtered)");
+            // if numeric, filter by user id; else by username / name prefix (case-insensitive)
+            Integer userId;
+            try { userId = Integer.valueOf(q); } catch (NumberFormatException ex) { userId = null; }
+            Integer uid = userId;
+            DBHelper.IssueStatus status = (DBHelper.IssueStatus) statusBox.getSelectedItem();
+            sort.clear(); // the filter result is latest first
+            filtered[0] = true;
+            model = DBHelper.newIssuesTableModel();
+            table.setModel(model);
+            lblStatus.setText("Searching...");
+            pager.reset(model, (into, token) -> DBHelper.getIssuesForUser(into, uid, uid == null ? q : null, status, from, to, token));
+            sync.follow(model, false);
         });
-
-        // helper: copy row
-    }
-
-    private Vector<Object> getRowVector(DefaultTableModel m, int row) {
-        Vector<Object> v = new Vector<>();
-        for (int c = 0; c < m.getColumnCount(); c++) v.add(m.getValueAt(row, c));
-        return v;
     }
 }
 
+// OverdueLoansPage - open loans past their due date, most overdue first, with the late days OverdueScanner keeps
+class OverdueLoansPage extends JFrame {
+    private ColumnarTableModel model;
 
+    public OverdueLoansPage() {
+        setTitle("Overdue Loans");
+        setSize(1000, 560);
+        setLocationRelativeTo(null);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 8));
+        JButton btnRefresh = new JButton("Refresh");
+        JButton btnScan = new JButton("Recalculate late days");
+        JLabel lblScan = new JLabel();
+        top.add(btnRefresh);
+        top.add(btnScan);
+        top.add(lblScan);
+        add(top, BorderLayout.NORTH);
+
+        model = DBHelper.newIssuesTableModel();
+        JTable table = new JTable(model);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        // bottom: status + next page of the overdue set
+        JLabel lblStatus = new JLabel();
+        LoadMore pager = new LoadMore(DBHelper::loadOverduePage);
+        pager.onLoaded(() -> lblStatus.setText(model.getRowCount() + (pager.hasMore() ? " overdue loans shown (oldest due date first)" : " overdue loans")));
+        JPanel bottom = new JPanel(new BorderLayout(8, 8));
+        bottom.add(lblStatus, BorderLayout.CENTER);
+        bottom.add(pager.button, BorderLayout.EAST);
+        add(bottom, BorderLayout.SOUTH);
+
+        Runnable showAll = () -> {
+            lblScan.setText(OverdueScanner.lastRun());
+            model = DBHelper.newIssuesTableModel();
+            table.setModel(model);
+            pager.reset(model, DBHelper::loadOverduePage);
+        };
+        btnRefresh.addActionListener(ae -> showAll.run());
+        // a scan now instead of at the next interval (e.g. after the date changed)
+        btnScan.addActionListener(ae -> UiTasks.run(this, OverdueScanner::scan, n -> showAll.run(), btnScan, btnRefresh));
+
+        showAll.run();
+        setVisible(true);
+    }
+}
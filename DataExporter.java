@@ -0,0 +1,262 @@
+// DataExporter.java
+import javax.swing.*;
+import java.awt.*;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * DataExporter - streams books or issues straight from a ResultSet to a file.
+ * - rows are read with a fetch-size hint and written as they arrive; nothing is collected in a table model,
+ *   so memory use is the same for a hundred rows or millions
+ * - CSV (header line, RFC 4180 quoting) or JSON Lines (one object per row, numbers unquoted)
+ * - output goes through a buffered writer on a FileChannel, optionally gzip-compressed
+ * - issues can be limited to an issue_date range (yyyy-MM-dd, inclusive), served by idx_issues_issue_date
+ * - reports rows, bytes and rows/sec; the admin dashboard shows them live ("Export data")
+ *
+ * Command line: java DataExporter books|issues <file> [--jsonl] [--gzip] [--from yyyy-MM-dd] [--to yyyy-MM-dd]
+ * Fetch size: -Dlms.export.fetchSize=N (default 1000).
+ */
+class DataExporter {
+
+    enum Dataset { BOOKS, ISSUES }
+    enum Format { CSV, JSONL }
+
+    interface ProgressListener {
+        void onProgress(long rows, long elapsedNanos);
+    }
+
+    static final int FETCH_SIZE = Integer.getInteger("lms.export.fetchSize", 1000);
+    static final int BUFFER_BYTES = 1 << 16;
+
+    static final String SQL_EXPORT_BOOKS = "SELECT id, isbn, title, author, category, publisher, publish_year, edition, quantity, available FROM books ORDER BY id";
+    static final String SQL_EXPORT_ISSUES = "SELECT id, book_id, book_title, user_id, user_name, issue_date, due_date, return_date, late_days, issued_by, remarks FROM issues ORDER BY id";
+    // range export walks the issue_date index in order, so no sort is needed
+    static final String SQL_EXPORT_ISSUES_RANGE = "SELECT id, book_id, book_title, user_id, user_name, issue_date, due_date, return_date, late_days, issued_by, remarks " +
+            "FROM issues WHERE issue_date >= ? AND issue_date <= ? ORDER BY issue_date, id";
+
+    private final Dataset dataset;
+    private final Format format;
+    private final boolean gzip;
+    private final String fromDate, toDate; // null = open end
+    private volatile boolean cancelled;
+
+    DataExporter(Dataset dataset, Format format, boolean gzip, String fromDate, String toDate) {
+        this.dataset = dataset;
+        this.format = format;
+        this.gzip = gzip;
+        this.fromDate = blankToNull(fromDate);
+        this.toDate = blankToNull(toDate);
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.trim().isEmpty() ? null : s.trim();
+    }
+
+    void cancel() { cancelled = true; }
+
+    /** Suggested file name, e.g. issues.jsonl.gz */
+    String defaultFileName() {
+        return dataset.name().toLowerCase(Locale.ROOT) + (format == Format.CSV ? ".csv" : ".jsonl") + (gzip ? ".gz" : "");
+    }
+
+    Report export(File target, ProgressListener listener) throws IOException, SQLException {
+        long start = System.nanoTime();
+        long rows = 0;
+        boolean ranged = dataset == Dataset.ISSUES && (fromDate != null || toDate != null);
+        String sql = dataset == Dataset.BOOKS ? SQL_EXPORT_BOOKS : ranged ? SQL_EXPORT_ISSUES_RANGE : SQL_EXPORT_ISSUES;
+
+        try (FileChannel ch = FileChannel.open(target.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = Channels.newOutputStream(ch);
+            if (gzip) out = new GZIPOutputStream(out, BUFFER_BYTES) {{ def.setLevel(Deflater.BEST_SPEED); }}; // exports favour throughput over ratio
+            try (Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_BYTES);
+                 Connection c = DBHelper.getConnection();
+                 PreparedStatement ps = c.prepareStatement(sql)) {
+                if (ranged) {
+                    ps.setString(1, fromDate == null ? "" : fromDate);
+                    ps.setString(2, toDate == null ? "9999-99-99" : toDate);
+                }
+                ps.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    ResultSetMetaData md = rs.getMetaData();
+                    int n = md.getColumnCount();
+                    String[] names = new String[n];
+                    for (int i = 0; i < n; i++) names[i] = md.getColumnLabel(i + 1);
+                    if (format == Format.CSV) writeCsvRow(w, names);
+
+                    Object[] values = new Object[n];
+                    while (!cancelled && rs.next()) {
+                        for (int i = 0; i < n; i++) values[i] = rs.getObject(i + 1);
+                        if (format == Format.CSV) writeCsvRow(w, values);
+                        else writeJsonRow(w, names, values);
+                        if (++rows % FETCH_SIZE == 0 && listener != null) listener.onProgress(rows, System.nanoTime() - start);
+                    }
+                }
+            }
+            long took = System.nanoTime() - start;
+            if (listener != null) listener.onProgress(rows, took);
+            return new Report(rows, target.length(), took, cancelled);
+        }
+    }
+
+    private static void writeCsvRow(Writer w, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) w.write(',');
+            Object v = values[i];
+            if (v == null) continue;
+            String s = v.toString();
+            if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+                w.write('"');
+                w.write(s.replace("\"", "\"\""));
+                w.write('"');
+            } else w.write(s);
+        }
+        w.write('\n');
+    }
+
+    private static void writeJsonRow(Writer w, String[] names, Object[] values) throws IOException {
+        w.write('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) w.write(',');
+            writeJsonString(w, names[i]);
+            w.write(':');
+            Object v = values[i];
+            if (v == null) w.write("null");
+            else if (v instanceof Number) w.write(v.toString());
+            else if (v instanceof byte[]) w.write("null"); // blobs are not exported
+            else writeJsonString(w, v.toString());
+        }
+        w.write("}\n");
+    }
+
+    private static void writeJsonString(Writer w, String s) throws IOException {
+        w.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"': w.write("\\\""); break;
+                case '\\': w.write("\\\\"); break;
+                case '\n': w.write("\\n"); break;
+                case '\r': w.write("\\r"); break;
+                case '\t': w.write("\\t"); break;
+                default:
+                    if (ch < 0x20) w.write(String.format("\\u%04x", (int) ch));
+                    else w.write(ch);
+            }
+        }
+        w.write('"');
+    }
+
+    static final class Report {
+        final long rows, bytes, nanos;
+        final boolean cancelled;
+
+        Report(long rows, long bytes, long nanos, boolean cancelled) {
+            this.rows = rows; this.bytes = bytes; this.nanos = nanos; this.cancelled = cancelled;
+        }
+
+        double rowsPerSecond() {
+            return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+        }
+
+        public String toString() {
+            return String.format("%s%,d rows, %,d KB in %.1f s (%.0f rows/s, %.1f MB/s)", cancelled ? "CANCELLED after " : "",
+                    rows, bytes / 1024, nanos / 1e9, rowsPerSecond(), nanos == 0 ? 0 : bytes / 1048576.0 / (nanos / 1e9));
+        }
+    }
+
+    // ---------- admin dashboard ----------
+
+    /** Options, then a save dialog, then a progress dialog; the export runs on a SwingWorker. */
+    static void showDialog(Component parent) {
+        JComboBox<Dataset> datasetBox = new JComboBox<>(Dataset.values());
+        JComboBox<Format> formatBox = new JComboBox<>(Format.values());
+        JCheckBox gzipBox = new JCheckBox("gzip");
+        JTextField fromField = new JTextField(10);
+        JTextField toField = new JTextField(10);
+        JPanel form = new JPanel(new GridLayout(0, 2, 6, 6));
+        form.add(new JLabel("Data:")); form.add(datasetBox);
+        form.add(new JLabel("Format:")); form.add(formatBox);
+        form.add(new JLabel("Compression:")); form.add(gzipBox);
+        form.add(new JLabel("Issued from (yyyy-MM-dd):")); form.add(fromField);
+        form.add(new JLabel("Issued to (yyyy-MM-dd):")); form.add(toField);
+        if (JOptionPane.showConfirmDialog(parent, form, "Export data", JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) return;
+
+        DataExporter exporter = new DataExporter((Dataset) datasetBox.getSelectedItem(), (Format) formatBox.getSelectedItem(),
+                gzipBox.isSelected(), fromField.getText(), toField.getText());
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File(exporter.defaultFileName()));
+        if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) return;
+        File target = chooser.getSelectedFile();
+
+        JDialog dialog = new JDialog(SwingUtilities.getWindowAncestor(parent), "Export data", Dialog.ModalityType.MODELESS);
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        JLabel status = new JLabel("Exporting " + exporter.dataset.name().toLowerCase(Locale.ROOT) + " to " + target.getName() + "...");
+        JButton cancelBtn = new JButton("Cancel");
+        cancelBtn.addActionListener(e -> { exporter.cancel(); cancelBtn.setEnabled(false); });
+        JPanel p = new JPanel(new BorderLayout(8, 8));
+        p.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        p.add(status, BorderLayout.NORTH);
+        p.add(bar, BorderLayout.CENTER);
+        p.add(cancelBtn, BorderLayout.SOUTH);
+        dialog.setContentPane(p);
+        dialog.setSize(480, 150);
+        dialog.setLocationRelativeTo(parent);
+        dialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        dialog.setVisible(true);
+
+        new SwingWorker<Report, long[]>() {
+            protected Report doInBackground() throws Exception {
+                return exporter.export(target, (rows, nanos) -> publish(new long[]{rows, nanos}));
+            }
+
+            protected void process(List<long[]> chunks) {
+                long[] last = chunks.get(chunks.size() - 1);
+                status.setText(String.format("%,d rows written (%.0f rows/s)", last[0], last[1] == 0 ? 0 : last[0] * 1e9 / last[1]));
+            }
+
+            protected void done() {
+                dialog.dispose();
+                try {
+                    JOptionPane.showMessageDialog(parent, target.getName() + ": " + get(), "Export data", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(parent, "Export failed: " + ex.getMessage(), "Export data", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    // ---------- command line ----------
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("usage: java DataExporter books|issues <file> [--jsonl] [--gzip] [--from yyyy-MM-dd] [--to yyyy-MM-dd]");
+            return;
+        }
+        Dataset ds = Dataset.valueOf(args[0].toUpperCase(Locale.ROOT));
+        Format fmt = Format.CSV;
+        boolean gz = false;
+        String from = null, to = null;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--jsonl": fmt = Format.JSONL; break;
+                case "--gzip": gz = true; break;
+                case "--from": from = args[++i]; break;
+                case "--to": to = args[++i]; break;
+                default: System.out.println("Ignoring unknown option " + args[i]);
+            }
+        }
+        DBHelper.initialize();
+        Report r = new DataExporter(ds, fmt, gz, from, to).export(new File(args[1]), null);
+        System.out.println(args[1] + ": " + r);
+    }
+}
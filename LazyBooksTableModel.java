@@ -0,0 +1,297 @@
+// LazyBooksTableModel.java
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * LazyBooksTableModel - virtual books table for SearchBooksPage.
+ * - holds only the ids of the listing (all books, or a search result in rank order), so the row count is known up front
+ * - rows are read from DBHelper.loadBookRows in blocks, when the JTable first asks for a cell of that block
+ * - blocks are loaded on a background thread; cells show empty until then and the rows repaint when the block arrives
+ * - an LRU cache keeps the most recently used blocks; once a block is on screen the next one is prefetched
+ * - while the scrollbar is dragged, requests for blocks that scrolled past are dropped before they hit the database
+ * - column 0 (Book ID) comes straight from the id list, so selection and double-click never wait for a block
+ * - deleted books (since the ids were read) show as "(deleted)"
+ * - applyChange keeps the listing current from DBHelper change events: an edited row is re-read,
+ *   a deleted one removed, a new book added on top of the all-books listing
+ * - a search result of up to refineMax rows also keeps each book's folded search text, so typing on
+ *   ("jav" -> "java") narrows it in memory with no query; the narrowed rows keep the original rank order
+ * - an edited row's search text is taken from its re-read row; until that read is in, typing on runs a query
+ * - the id list can come in any DBHelper.BOOK_SORT order (header click); SQLite sorts, the table never does
+ *
+ * Block size: -Dlms.ui.blockSize=N (default 100). Cached blocks: -Dlms.ui.cacheBlocks=N (default 50).
+ * Refinable result size: -Dlms.search.refineMax=N (default 5000, 0 disables).
+ */
+class LazyBooksTableModel extends AbstractTableModel {
+
+    static final int BLOCK_SIZE = Math.max(1, Integer.getInteger("lms.ui.blockSize", 100));
+    static final int CACHE_BLOCKS = Math.max(2, Integer.getInteger("lms.ui.cacheBlocks", 50));
+    static final int REFINE_MAX = Integer.getInteger("lms.search.refineMax", 5000);
+
+    // more outstanding requests than fit on a screen or two means the user scrolled past them
+    private static final int MAX_PENDING = 4;
+
+    private static final Object[] DELETED = {null, "(deleted)", "", "", "", "", "", "", null, null};
+
+    // one loader for all models: block reads are short and ordered by request
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "books-table-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private int[] ids;             // replaced (EDT) when rows are inserted or removed
+    private final String keyword;  // the search these ids answer; null for all books
+    private String[] text;         // DBHelper.searchText per row, or null if this result cannot be narrowed in memory
+    private int generation;        // bumped when row positions shift; block reads from before are dropped
+    private int edits;             // counts applyChange UPDATEs
+    private final Map<Integer, Integer> editedAt = new HashMap<>(); // block -> edits when one of its rows last changed
+    private final Set<Integer> staleText = new HashSet<>(); // book ids edited since their text was read
+    final boolean refined;         // built by refine() rather than a query
+    private final int sortColumn;  // model column the ids are ordered by, -1 = newest first / best match first
+    private final boolean ascending;
+    private final LinkedHashSet<Integer> loading = new LinkedHashSet<>(); // requested, oldest first
+    private final LinkedHashMap<Integer, Object[][]> blocks = new LinkedHashMap<Integer, Object[][]>(16, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest) {
+            return size() > CACHE_BLOCKS;
+        }
+    };
+
+    private long blockLoads, cellHits;
+
+    LazyBooksTableModel(int[] ids) {
+        this(ids, null, null, false, -1, false);
+    }
+
+    private LazyBooksTableModel(int[] ids, String keyword, String[] text, boolean refined, int sortColumn, boolean ascending) {
+        this.ids = ids;
+        this.keyword = keyword;
+        this.text = text;
+        this.refined = refined;
+        this.sortColumn = sortColumn;
+        this.ascending = ascending;
+    }
+
+    /** Every book, newest first. */
+    static LazyBooksTableModel allBooks() {
+        return allBooks(-1, false);
+    }
+
+    /** Every book, ordered by model column sortColumn (-1 = newest first). */
+    static LazyBooksTableModel allBooks(int sortColumn, boolean ascending) {
+        return new LazyBooksTableModel(DBHelper.getAllBookIds(sortColumn, ascending), null, null, false, sortColumn, ascending);
+    }
+
+    /** Books matching keyword, best match first, no row limit. */
+    static LazyBooksTableModel search(String keyword) {
+        return search(keyword, null);
+    }
+
+    // cancel (may be null) interrupts the query when a newer search supersedes this one
+    static LazyBooksTableModel search(String keyword, DBHelper.QueryCancel cancel) {
+        return search(keyword, cancel, -1, false);
+    }
+
+    // as above, ordered by model column sortColumn instead of rank (-1 = best match first)
+    static LazyBooksTableModel search(String keyword, DBHelper.QueryCancel cancel, int sortColumn, boolean ascending) {
+        int[] ids = DBHelper.searchBookIds(keyword, -1, cancel, sortColumn, ascending);
+        String[] text = ids.length <= REFINE_MAX && refinable(keyword) ? DBHelper.loadBookSearchText(ids, cancel) : null;
+        return new LazyBooksTableModel(ids, keyword, text, false, sortColumn, ascending);
+    }
+
+    boolean sortedBy(int column, boolean ascending) {
+        return sortColumn == column && (column < 0 || this.ascending == ascending);
+    }
+
+    /**
+     * This result narrowed to keyword without a query, when keyword extends this result's own keyword;
+     * null if that would not give exactly what search(keyword) returns (then search instead).
+     */
+    LazyBooksTableModel refine(String keyword) {
+        int[] ids;
+        String[] text;
+        synchronized (this) { // runs off the EDT; applyChange may swap the arrays
+            if (!staleText.isEmpty()) return null; // an edited book's title may no longer match
+            ids = this.ids;
+            text = this.text;
+        }
+        if (text == null || this.keyword == null || !refinable(keyword)) return null;
+        String[] words = DBHelper.searchWords(keyword);
+        String[] before = DBHelper.searchWords(this.keyword);
+        // each old prefix must still be there or have grown: then every new match was an old match
+        if (words.length < before.length) return null;
+        for (int i = 0; i < before.length; i++) {
+            if (!words[i].startsWith(before[i])) return null;
+        }
+        int[] keep = new int[ids.length];
+        String[] keepText = new String[ids.length];
+        int n = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (DBHelper.matchesSearchWords(text[i], words)) {
+                keep[n] = ids[i];
+                keepText[n++] = text[i];
+            }
+        }
+        // a subset keeps the order it was taken from, whatever the sort
+        return new LazyBooksTableModel(Arrays.copyOf(keep, n), keyword, Arrays.copyOf(keepText, n), true, sortColumn, ascending);
+    }
+
+    // full-text keywords only: ISBN lookups and the LIKE fallback match differently
+    private static boolean refinable(String keyword) {
+        return REFINE_MAX > 0 && DBHelper.isbnDigits(keyword) == null && DBHelper.ftsQuery(keyword) != null
+                && DBHelper.booksFullTextAvailable();
+    }
+
+    public int getRowCount() { return ids.length; }
+
+    public int getColumnCount() { return DBHelper.BOOK_COLUMNS.length; }
+
+    public String getColumnName(int column) { return DBHelper.BOOK_COLUMNS[column]; }
+
+    public Class<?> getColumnClass(int column) {
+        return column == 0 || column == 8 || column == 9 ? Integer.class : String.class;
+    }
+
+    public boolean isCellEditable(int row, int column) { return false; }
+
+    int getBookId(int row) { return ids[row]; }
+
+    public Object getValueAt(int row, int column) {
+        if (column == 0) return ids[row];
+        int block = row / BLOCK_SIZE;
+        Object[][] rows;
+        synchronized (this) {
+            rows = blocks.get(block);
+            if (rows != null) cellHits++;
+        }
+        if (rows == null) {
+            request(block);
+            return null;
+        }
+        if (column == 1) request(block + 1); // prefetch: scrolling usually continues downwards
+        Object[] r = rows[row - block * BLOCK_SIZE];
+        return (r == null ? DELETED : r)[column];
+    }
+
+    // queues a block read unless it is cached, in flight, or past the end
+    private void request(int block) {
+        if (block * BLOCK_SIZE >= ids.length) return;
+        synchronized (this) {
+            if (blocks.containsKey(block) || !loading.add(block)) return;
+            if (loading.size() > MAX_PENDING) { // fast scrolling: forget the oldest request
+                Iterator<Integer> oldest = loading.iterator();
+                oldest.next();
+                oldest.remove();
+            }
+        }
+        LOADER.execute(() -> load(block));
+    }
+
+    private void load(int block) {
+        int[] listed;
+        int gen, edit;
+        synchronized (this) {
+            if (!loading.contains(block)) return; // dropped while queued
+            listed = ids;
+            gen = generation;
+            edit = edits;
+        }
+        int from = block * BLOCK_SIZE;
+        int to = Math.min(listed.length, from + BLOCK_SIZE);
+        Object[][] rows = DBHelper.loadBookRows(listed, from, to);
+        synchronized (this) {
+            loading.remove(block);
+            if (gen != generation) return; // rows moved meanwhile
+            if (editedAt.getOrDefault(block, 0) > edit) { // a row changed meanwhile: read it again
+                if (!blocks.containsKey(block)) request(block);
+                return;
+            }
+            blocks.put(block, rows);
+            blockLoads++;
+            if (text != null && !staleText.isEmpty()) {
+                for (int i = from; i < to; i++) {
+                    if (!staleText.remove(listed[i])) continue;
+                    Object[] r = rows[i - from];
+                    text[i] = r == null ? null : DBHelper.searchText((String) r[1], (String) r[2], (String) r[3], (String) r[4]);
+                }
+            }
+        }
+        SwingUtilities.invokeLater(() -> fireTableRowsUpdated(from, to - 1));
+    }
+
+    /** Applies one DBHelper change to a book; call on the EDT. */
+    void applyChange(DBHelper.Change change, int id) {
+        if (change == DBHelper.Change.INSERT) {
+            if (keyword != null) return; // a search result: the new book may not match
+            if (!sortedBy(-1, false) && !sortedBy(0, false)) return; // sorted: its place is not the top
+            synchronized (this) {
+                int[] grown = new int[ids.length + 1];
+                grown[0] = id;
+                System.arraycopy(ids, 0, grown, 1, ids.length);
+                ids = grown;
+                shifted();
+            }
+            fireTableRowsInserted(0, 0);
+            return;
+        }
+        int row = indexOf(id);
+        if (row < 0) return;
+        if (change == DBHelper.Change.UPDATE) {
+            synchronized (this) {
+                editedAt.put(row / BLOCK_SIZE, ++edits); // a read already in flight has the old row
+                blocks.remove(row / BLOCK_SIZE);
+                if (text != null) staleText.add(id); // usually a checkout or return: the text comes back the same
+            }
+            request(row / BLOCK_SIZE); // re-read now, on screen or not, to bring the search text up to date
+            fireTableRowsUpdated(row, row);
+            return;
+        }
+        synchronized (this) {
+            int[] shrunk = new int[ids.length - 1];
+            System.arraycopy(ids, 0, shrunk, 0, row);
+            System.arraycopy(ids, row + 1, shrunk, row, ids.length - row - 1);
+            ids = shrunk;
+            staleText.remove(id);
+            if (text != null) {
+                String[] t = new String[text.length - 1];
+                System.arraycopy(text, 0, t, 0, row);
+                System.arraycopy(text, row + 1, t, row, text.length - row - 1);
+                text = t;
+            }
+            shifted();
+        }
+        fireTableRowsDeleted(row, row);
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < ids.length; i++) if (ids[i] == id) return i;
+        return -1;
+    }
+
+    // row positions moved: cached blocks no longer line up
+    private void shifted() {
+        generation++;
+        blocks.clear();
+        loading.clear();
+        editedAt.clear();
+    }
+
+    /** Drops cached rows (e.g. after an edit) so visible rows are read again. */
+    synchronized void invalidate() {
+        blocks.clear();
+        SwingUtilities.invokeLater(() -> { if (ids.length > 0) fireTableRowsUpdated(0, ids.length - 1); });
+    }
+
+    synchronized String stats() {
+        return String.format("rows=%d cachedBlocks=%d/%d blockLoads=%d cellHits=%d", ids.length, blocks.size(), CACHE_BLOCKS, blockLoads, cellHits);
+    }
+}
@@ -0,0 +1,102 @@
+// LibrarianPhotos.java
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LibrarianPhotos - librarian photos as a small thumbnail plus the untouched original.
+ * - librarians.photo_thumb holds a JPEG that fits the form's preview (THUMB_WIDTH x THUMB_HEIGHT)
+ * - forms read only the thumbnail; the original BLOB is read by loadOriginal, when someone asks to see it
+ * - thumbnails are made when a photo is saved, and once for existing rows by SchemaMigrator (v9)
+ * - decoding and scaling happen off the EDT (callers run them through UiTasks)
+ *
+ * Thumbnail size: -Dlms.photo.thumbWidth / -Dlms.photo.thumbHeight (default 160 x 140).
+ */
+class LibrarianPhotos {
+
+    static final int THUMB_WIDTH = Integer.getInteger("lms.photo.thumbWidth", 160);
+    static final int THUMB_HEIGHT = Integer.getInteger("lms.photo.thumbHeight", 140);
+
+    static final String SQL_ORIGINAL = "SELECT photo FROM librarians WHERE id = ?";
+    static final String SQL_IDS_WITHOUT_THUMB = "SELECT id FROM librarians WHERE photo IS NOT NULL AND photo_thumb IS NULL";
+    static final String SQL_SET_THUMB = "UPDATE librarians SET photo_thumb = ? WHERE id = ?";
+
+    /** A JPEG thumbnail of an image file's bytes, or null if they are not an image ImageIO can read. */
+    static byte[] thumbnail(byte[] original) {
+        BufferedImage img = decode(original);
+        if (img == null) return null;
+        BufferedImage thumb = fit(img, THUMB_WIDTH, THUMB_HEIGHT);
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            if (!ImageIO.write(thumb, "jpg", out)) return null;
+            return out.toByteArray();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /** img scaled down (never up) to fit in width x height, aspect ratio kept, on white (for transparent PNG/GIF). */
+    static BufferedImage fit(BufferedImage img, int width, int height) {
+        double scale = Math.min(1.0, Math.min((double) width / img.getWidth(), (double) height / img.getHeight()));
+        int w = Math.max(1, (int) Math.round(img.getWidth() * scale));
+        int h = Math.max(1, (int) Math.round(img.getHeight() * scale));
+        BufferedImage rgb = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+        g.drawImage(img, 0, 0, null);
+        g.dispose();
+        return w == img.getWidth() && h == img.getHeight() ? rgb : BackgroundImageCache.scaleDown(rgb, w, h);
+    }
+
+    static BufferedImage decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return null;
+        try {
+            return ImageIO.read(new ByteArrayInputStream(bytes));
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /** The full-size photo of librarian id, or null. Only for "view photo": forms use the thumbnail. */
+    static byte[] loadOriginal(int id) {
+        try (Connection c = DBHelper.getConnection(); PreparedStatement ps = c.prepareStatement(SQL_ORIGINAL)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getBytes(1) : null;
+            }
+        } catch (SQLException ex) { ex.printStackTrace(); return null; }
+    }
+
+    /** Makes the missing thumbnails, one photo in memory at a time; returns how many. */
+    static int backfill(Connection c) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement(SQL_IDS_WITHOUT_THUMB); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) ids.add(rs.getInt(1));
+        }
+        int made = 0;
+        try (PreparedStatement get = c.prepareStatement(SQL_ORIGINAL); PreparedStatement set = c.prepareStatement(SQL_SET_THUMB)) {
+            for (int id : ids) {
+                get.setInt(1, id);
+                byte[] original;
+                try (ResultSet rs = get.executeQuery()) {
+                    original = rs.next() ? rs.getBytes(1) : null;
+                }
+                byte[] thumb = thumbnail(original);
+                if (thumb == null) continue; // not an image ImageIO can read: the form shows "No Photo"
+                set.setBytes(1, thumb);
+                set.setInt(2, id);
+                set.executeUpdate();
+                made++;
+            }
+        }
+        return made;
+    }
+}
@@ -0,0 +1,188 @@
+// LibraryStats.java
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LibraryStats - dashboard numbers (titles, copies, available, on loan, overdue, active users) kept in memory.
+ * - counted once at startup (DBHelper.initialize), then DBHelper's writes adjust them by their own row deltas
+ * - on loan is kept per due date, so overdue is the sum of the due dates before today: no scan when the day changes
+ * - a background check recounts from the database every CHECK_SECONDS; counts that differ from the live ones are
+ *   taken only when two recounts in a row agree and no write arrived meanwhile (so a write that committed but has not
+ *   reported yet is not mistaken for drift); writes outside DBHelper and bulk imports are corrected this way
+ * - recounts read the three totals in one read transaction, over idx_issues_open_due for the issues
+ *
+ * Check interval: -Dlms.stats.checkSeconds=N (default 300, 0 disables the periodic check).
+ */
+class LibraryStats {
+
+    static final long CHECK_SECONDS = Long.getLong("lms.stats.checkSeconds", 300L);
+    static final long CONFIRM_SECONDS = 5; // second recount after a mismatch
+
+    static final String SQL_BOOK_TOTALS = "SELECT COUNT(*), COALESCE(SUM(quantity), 0), COALESCE(SUM(available), 0) FROM books";
+    static final String SQL_OPEN_BY_DUE = "SELECT due_date, COUNT(*) FROM issues WHERE return_date IS NULL GROUP BY due_date";
+    static final String SQL_ACTIVE_USERS = "SELECT COUNT(*) FROM users WHERE status = 'Active' COLLATE NOCASE";
+
+    private static final ScheduledExecutorService CHECKER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "library-stats");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** One reading of the numbers, for display. */
+    static final class Snapshot {
+        final long titles, copies, available, onLoan, overdue, activeUsers;
+
+        Snapshot(long titles, long copies, long available, long onLoan, long overdue, long activeUsers) {
+            this.titles = titles; this.copies = copies; this.available = available;
+            this.onLoan = onLoan; this.overdue = overdue; this.activeUsers = activeUsers;
+        }
+
+        public String toString() {
+            return "Titles " + titles + "  |  Copies " + copies + "  |  Available " + available
+                    + "  |  On loan " + onLoan + "  |  Overdue " + overdue + "  |  Active users " + activeUsers;
+        }
+    }
+
+    // the counted state; openByDue has no entry for open issues without a due date (never overdue)
+    private static final class Counts {
+        long titles, copies, available, onLoan, activeUsers;
+        final TreeMap<String, Long> openByDue = new TreeMap<>();
+
+        boolean sameAs(Counts o) {
+            return o != null && titles == o.titles && copies == o.copies && available == o.available
+                    && onLoan == o.onLoan && activeUsers == o.activeUsers && openByDue.equals(o.openByDue);
+        }
+
+        public String toString() {
+            return "titles=" + titles + " copies=" + copies + " available=" + available + " onLoan=" + onLoan
+                    + " dueDates=" + openByDue.size() + " activeUsers=" + activeUsers;
+        }
+    }
+
+    private static Counts live;          // null until the first count
+    private static Counts suspect;       // a recount that disagreed with live, waiting for confirmation
+    private static long changes;         // deltas applied so far
+    private static long checks, corrections, checkNanos;
+    private static boolean scheduled;
+
+    /** First count (startup), then the periodic check. */
+    static void load() {
+        check();
+        synchronized (LibraryStats.class) {
+            if (scheduled || CHECK_SECONDS <= 0) return;
+            scheduled = true;
+        }
+        CHECKER.scheduleWithFixedDelay(LibraryStats::check, CHECK_SECONDS, CHECK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /** Recounts soon (after a bulk write whose deltas are not known). */
+    static void checkSoon() {
+        CHECKER.execute(LibraryStats::check);
+    }
+
+    static synchronized void bookAdded(int quantity, int available) { booksAdded(1, quantity, available); }
+
+    static synchronized void booksAdded(int titles, long quantity, long available) {
+        changes++;
+        if (live == null) return;
+        live.titles += titles;
+        live.copies += quantity;
+        live.available += available;
+    }
+
+    static synchronized void bookRemoved(int quantity, int available) { booksAdded(-1, -quantity, -available); }
+
+    static synchronized void bookChanged(int quantityDelta, int availableDelta) { booksAdded(0, quantityDelta, availableDelta); }
+
+    static synchronized void issued(String dueDate) { loaned(dueDate, 1); }
+
+    static synchronized void returned(String dueDate) { loaned(dueDate, -1); }
+
+    private static void loaned(String dueDate, int n) {
+        changes++;
+        if (live == null) return;
+        live.onLoan += n;
+        live.available -= n;
+        if (dueDate != null) {
+            long left = live.openByDue.merge(dueDate, (long) n, Long::sum);
+            if (left == 0) live.openByDue.remove(dueDate);
+        }
+    }
+
+    static synchronized void activeUsersChanged(int delta) {
+        changes++;
+        if (live != null) live.activeUsers += delta;
+    }
+
+    /** The numbers now; null before the first count. */
+    static synchronized Snapshot snapshot() {
+        if (live == null) return null;
+        long overdue = 0;
+        for (long n : live.openByDue.headMap(LocalDate.now().toString(), false).values()) overdue += n;
+        return new Snapshot(live.titles, live.copies, live.available, live.onLoan, overdue, live.activeUsers);
+    }
+
+    private static void check() {
+        long since;
+        synchronized (LibraryStats.class) { since = changes; }
+        long start = System.nanoTime();
+        Counts fresh;
+        try (Connection c = DBHelper.getConnection()) {
+            fresh = count(c);
+        } catch (SQLException ex) { ex.printStackTrace(); return; }
+        boolean confirm = false;
+        synchronized (LibraryStats.class) {
+            checks++;
+            checkNanos += System.nanoTime() - start;
+            if (live == null) { live = fresh; return; }
+            if (changes != since) { suspect = null; return; } // writes came in while counting: try next time
+            if (fresh.sameAs(live)) { suspect = null; return; }
+            if (fresh.sameAs(suspect)) {
+                System.out.println("Library stats drift corrected: " + live + " -> " + fresh);
+                live = fresh;
+                suspect = null;
+                corrections++;
+                return;
+            }
+            suspect = fresh;
+            confirm = true;
+        }
+        if (confirm) CHECKER.schedule(LibraryStats::check, CONFIRM_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // one read transaction, so the three totals are of the same moment
+    private static Counts count(Connection c) throws SQLException {
+        Counts n = new Counts();
+        c.setAutoCommit(false);
+        try {
+            try (PreparedStatement ps = c.prepareStatement(SQL_BOOK_TOTALS); ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) { n.titles = rs.getLong(1); n.copies = rs.getLong(2); n.available = rs.getLong(3); }
+            }
+            try (PreparedStatement ps = c.prepareStatement(SQL_OPEN_BY_DUE); ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    n.onLoan += rs.getLong(2);
+                    if (rs.getString(1) != null) n.openByDue.put(rs.getString(1), rs.getLong(2));
+                }
+            }
+            try (PreparedStatement ps = c.prepareStatement(SQL_ACTIVE_USERS); ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) n.activeUsers = rs.getLong(1);
+            }
+        } finally {
+            c.rollback();
+            c.setAutoCommit(true);
+        }
+        return n;
+    }
+
+    static synchronized String stats() {
+        return String.format("library stats %s checks=%d avgCheck=%.1fms corrections=%d",
+                live == null ? "(not counted)" : live.toString(), checks, checks == 0 ? 0 : checkNanos / 1e6 / checks, corrections);
+    }
+}
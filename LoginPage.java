@@ -47,22 +47,11 @@ public class LoginPage extends JFrame {
         // -----------------------
         // Background (00.jpg)
         // -----------------------
-        ImageIcon rawBg = new ImageIcon("00.jpg");
-        Image bgScaled = rawBg.getImage().getScaledInstance(getWidth(), getHeight(), Image.SCALE_SMOOTH);
-        JLabel background = new JLabel(new ImageIcon(bgScaled));
+        // shared and pre-scaled; rescales itself on resize
+        JLabel background = BackgroundImageCache.label(this, 1000, 680);
         background.setLayout(new GridBagLayout());
         add(background, BorderLayout.CENTER);
 
-        // Rescale background on resize
-        addComponentListener(new ComponentAdapter() {
-            @Override
-            public void componentResized(ComponentEvent e) {
-                ImageIcon ri = new ImageIcon("00.jpg");
-                Image sc = ri.getImage().getScaledInstance(getWidth(), getHeight(), Image.SCALE_SMOOTH);
-                background.setIcon(new ImageIcon(sc));
-            }
-        });
-
         GridBagConstraints gbc = new GridBagConstraints();
         gbc.insets = new Insets(12,12,12,12);
         gbc.gridx = 0;
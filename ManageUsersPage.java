@@ -1,6 +1,5 @@
 import javax.swing.*;
 import java.awt.*;
-import javax.swing.table.DefaultTableModel;
 
 /**
  * ManageUsersPage - admin-only user management UI.
@@ -20,7 +19,11 @@ import javax.swing.table.DefaultTableModel;
  */
 public class ManageUsersPage extends JFrame {
     private JTable table;
-    private DefaultTableModel model;
+    private ColumnarTableModel model;
+    private HeaderSort sort; // header click: the listing is paged again in that order (no row sorter)
+    private final LoadMore.PageLoader usersPage = (into, token) -> DBHelper.loadUsersPage(into, token, sort.column(), sort.ascending());
+    private final LoadMore pager = new LoadMore(usersPage);
+    private TableSync sync; // saves and deletes show up in place, no reload
 
     // Form fields
     JTextField idField = new JTextField();
@@ -50,14 +53,16 @@ public class ManageUsersPage extends JFrame {
         JButton deleteBtn = new JButton("Delete");
         JButton refreshBtn = new JButton("Refresh");
         JButton toggleStatusBtn = new JButton("Toggle Active/Inactive");
-        top.add(newBtn); top.add(saveBtn); top.add(deleteBtn); top.add(refreshBtn); top.add(toggleStatusBtn);
+        top.add(newBtn); top.add(saveBtn); top.add(deleteBtn); top.add(refreshBtn); top.add(toggleStatusBtn); top.add(pager.button);
         add(top, BorderLayout.NORTH);
 
         // Center - table
-        model = DBHelper.getAllUsersTableModel();
+        model = DBHelper.newUsersTableModel();
         table = new JTable(model);
-        table.setAutoCreateRowSorter(true);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        sync = new TableSync("users", table);
+        sort = new HeaderSort(table, DBHelper.USER_SORT, (col, asc) -> refreshTable());
+        refreshTable(); // newest users first; "Load more" fetches the next page
         add(new JScrollPane(table), BorderLayout.CENTER);
 
         // Right - form
@@ -131,22 +136,23 @@ public class ManageUsersPage extends JFrame {
             }
 
             String idText = idField.getText().trim();
-            boolean ok;
+            UiTasks.Work<Boolean> write;
             if (idText.isEmpty()) {
                 // insert
-                ok = DBHelper.insertUser(fullName, username, password, email, phone, role, address, gender, status);
+                write = () -> DBHelper.insertUser(fullName, username, password, email, phone, role, address, gender, status);
             } else {
                 // update
                 int id = Integer.parseInt(idText);
-                ok = DBHelper.updateUser(id, fullName, username, password, email, phone, role, address, gender, status);
-            }
-            if (ok) {
-                JOptionPane.showMessageDialog(this, "Saved successfully.");
-                refreshTable();
-                clearForm();
-            } else {
-                JOptionPane.showMessageDialog(this, "Save failed (see console).", "Error", JOptionPane.ERROR_MESSAGE);
+                write = () -> DBHelper.updateUser(id, fullName, username, password, email, phone, role, address, gender, status);
             }
+            UiTasks.run(this, write, ok -> {
+                if (ok) {
+                    JOptionPane.showMessageDialog(this, "Saved successfully.");
+                    clearForm();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Save failed (see console).", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, saveBtn, deleteBtn, toggleStatusBtn);
         });
 
         deleteBtn.addActionListener(e -> {
@@ -156,13 +162,14 @@ public class ManageUsersPage extends JFrame {
             int id = (Integer) model.getValueAt(modelRow, 0);
             int confirm = JOptionPane.showConfirmDialog(this, "Delete user ID " + id + " ?", "Confirm", JOptionPane.YES_NO_OPTION);
             if (confirm != JOptionPane.YES_OPTION) return;
-            if (DBHelper.deleteUser(id)) {
-                JOptionPane.showMessageDialog(this, "Deleted.");
-                refreshTable();
-                clearForm();
-            } else {
-                JOptionPane.showMessageDialog(this, "Delete failed.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            UiTasks.run(this, () -> DBHelper.deleteUser(id), ok -> {
+                if (ok) {
+                    JOptionPane.showMessageDialog(this, "Deleted.");
+                    clearForm();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Delete failed.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, saveBtn, deleteBtn, toggleStatusBtn);
         });
 
         refreshBtn.addActionListener(e -> refreshTable());
@@ -192,14 +199,14 @@ public class ManageUsersPage extends JFrame {
             String address = addressField.getText().trim();
             String gender = (String) genderBox.getSelectedItem();
 
-            boolean ok = DBHelper.updateUser(id, fullName, username, password, email, phone, role, address, gender, newStatus);
-            if (ok) {
-                JOptionPane.showMessageDialog(this, "Status updated to " + newStatus);
-                refreshTable();
-                clearForm();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to update status.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            UiTasks.run(this, () -> DBHelper.updateUser(id, fullName, username, password, email, phone, role, address, gender, newStatus), ok -> {
+                if (ok) {
+                    JOptionPane.showMessageDialog(this, "Status updated to " + newStatus);
+                    clearForm();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to update status.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, saveBtn, deleteBtn, toggleStatusBtn);
         });
 
         setVisible(true);
@@ -224,10 +231,12 @@ public class ManageUsersPage extends JFrame {
         passwordField.setText("");
     }
 
+    // first page in the header's order; new users go on top only when that is newest first
     private void refreshTable() {
-        model = DBHelper.getAllUsersTableModel();
+        model = DBHelper.newUsersTableModel();
         table.setModel(model);
-        table.setAutoCreateRowSorter(true);
+        pager.reset(model, usersPage);
+        sync.follow(model, sort.column() < 0 || (sort.column() == 0 && !sort.ascending()));
     }
 
     private void clearForm() {
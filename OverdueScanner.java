@@ -0,0 +1,147 @@
+// OverdueScanner.java
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OverdueScanner - keeps issues.current_late_days up to date for open loans, on a background thread.
+ * - the overdue set is a range of idx_issues_open_due (open issues by due date): due_date < today
+ * - every loan due on the same day is late by the same number of days, so a run reads the overdue due dates with
+ *   their counts (from the index alone) and sets each date with one UPDATE over that index range
+ * - after a run, PRAGMA optimize refreshes the planner statistics for issues when they are missing or stale; with them
+ *   the per-date UPDATE reads idx_issues_open_due rather than idx_issues_due_date, which also holds the returned loans
+ * - dates are grouped into transactions of about BATCH_ROWS rows, so checkouts wait for one batch at most
+ * - rows that already hold the right value are not written: a second run on the same day writes nothing
+ * - runs at startup (DBHelper.initialize) and every SCAN_MINUTES; the overdue listing is DBHelper.loadOverduePage
+ * - late days are whole calendar days (java.time), also for ReturnBooksPage / IssueReturnPage via lateDays()
+ *
+ * Interval: -Dlms.overdue.scanMinutes=N (default 60, 0 = startup only). Batch: -Dlms.overdue.batchRows=N (default 5000).
+ */
+class OverdueScanner {
+
+    static final long SCAN_MINUTES = Long.getLong("lms.overdue.scanMinutes", 60L);
+    static final int BATCH_ROWS = Math.max(1, Integer.getInteger("lms.overdue.batchRows", 5000));
+
+    static final String SQL_OVERDUE_DATES = "SELECT due_date, COUNT(*) FROM issues WHERE return_date IS NULL AND due_date < ? GROUP BY due_date";
+    static final String SQL_SET_LATE_DAYS = "UPDATE issues SET current_late_days = ? " +
+            "WHERE return_date IS NULL AND due_date = ? AND current_late_days IS NOT ?";
+
+    private static final ScheduledExecutorService SCANNER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "overdue-scanner");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static boolean started;
+    private static long runs, rowsWritten, lastOverdue = -1, lastNanos, totalNanos;
+    private static String lastRunDate;
+
+    /** Scans now, then every SCAN_MINUTES. */
+    static synchronized void start() {
+        if (started) return;
+        started = true;
+        if (SCAN_MINUTES > 0) SCANNER.scheduleWithFixedDelay(OverdueScanner::scan, 0, SCAN_MINUTES, TimeUnit.MINUTES);
+        else SCANNER.execute(OverdueScanner::scan);
+    }
+
+    /** Whole days from dueDate to onDate (yyyy-MM-dd), 0 if not late or no due date. Throws DateTimeParseException. */
+    static int lateDays(String dueDate, String onDate) {
+        if (dueDate == null || dueDate.trim().isEmpty()) return 0;
+        long days = ChronoUnit.DAYS.between(LocalDate.parse(dueDate.trim()), LocalDate.parse(onDate.trim()));
+        return (int) Math.max(0, days);
+    }
+
+    /** One pass over the overdue loans; returns how many there are. */
+    static long scan() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        long overdue = 0, written = 0;
+        try (Connection c = DBHelper.getConnection()) {
+            List<String> dates = new ArrayList<>();
+            List<Long> counts = new ArrayList<>();
+            try (PreparedStatement ps = c.prepareStatement(SQL_OVERDUE_DATES)) {
+                ps.setString(1, today.toString());
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        dates.add(rs.getString(1));
+                        counts.add(rs.getLong(2));
+                    }
+                }
+            }
+            int from = 0;
+            while (from < dates.size()) {
+                int to = from;
+                long rows = 0;
+                while (to < dates.size() && (to == from || rows + counts.get(to) <= BATCH_ROWS)) rows += counts.get(to++);
+                written += writeBatch(c, dates.subList(from, to), today);
+                overdue += rows;
+                from = to;
+            }
+            try (Statement s = c.createStatement()) {
+                s.execute("PRAGMA optimize"); // analyzes only what the queries above would plan better with
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            return -1;
+        }
+        long nanos = System.nanoTime() - start;
+        synchronized (OverdueScanner.class) {
+            runs++;
+            rowsWritten += written;
+            lastOverdue = overdue;
+            lastNanos = nanos;
+            totalNanos += nanos;
+            lastRunDate = today.toString();
+        }
+        System.out.printf("Overdue scan: %d open loans overdue, %d late-day values written (%.1f ms)%n", overdue, written, nanos / 1e6);
+        return overdue;
+    }
+
+    // one transaction: every open loan due on these dates gets its late days as of today
+    private static int writeBatch(Connection c, List<String> dates, LocalDate today) throws SQLException {
+        int written = 0;
+        c.setAutoCommit(false);
+        try (PreparedStatement ps = c.prepareStatement(SQL_SET_LATE_DAYS)) {
+            for (String due : dates) {
+                int days;
+                try {
+                    days = lateDays(due, today.toString());
+                } catch (DateTimeParseException ex) {
+                    continue; // not yyyy-MM-dd: it sorts among the dates, but has no day count
+                }
+                ps.setInt(1, days);
+                ps.setString(2, due);
+                ps.setInt(3, days);
+                ps.addBatch();
+            }
+            for (int n : ps.executeBatch()) written += Math.max(0, n);
+            c.commit();
+        } catch (SQLException ex) {
+            c.rollback();
+            throw ex;
+        } finally {
+            c.setAutoCommit(true);
+        }
+        return written;
+    }
+
+    /** For the overdue page: when current_late_days was last brought up to date. */
+    static synchronized String lastRun() {
+        return lastRunDate == null ? "Late days not calculated yet" : "Late days as of " + lastRunDate + " (" + lastOverdue + " overdue)";
+    }
+
+    static synchronized String stats() {
+        return String.format("overdue scanner runs=%d lastRun=%s overdue=%d written=%d last=%.1fms avg=%.1fms",
+                runs, lastRunDate, lastOverdue, rowsWritten, lastNanos / 1e6, runs == 0 ? 0 : totalNanos / 1e6 / runs);
+    }
+}
@@ -0,0 +1,256 @@
+// PatronCache.java
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * PatronCache - every patron's id, full_name, username and status in memory, for checkout lookups.
+ * - one row per slot in parallel arrays (int id, two Strings, a byte status code): no object per patron
+ * - two open-addressing int tables map id -> slot and username -> slot; nothing boxed on a lookup
+ * - load(c) reads the users table in one query at startup (DBHelper.initialize)
+ * - DBHelper.insertUser / updateUser / deleteUser call refresh(c, id) after the write, which re-reads that one row
+ *   while holding the cache lock, so concurrent edits of one patron always leave the last committed row cached;
+ *   it returns the change in active patrons for LibraryStats
+ * - while every patron fits (complete), a lookup never touches disk and "not cached" means "no such user";
+ *   past the cap, DBHelper falls back to the database for the patrons that did not fit
+ *
+ * Size cap: -Dlms.cache.patrons=N rows (default 100000).
+ */
+class PatronCache {
+
+    static final int MAX_ENTRIES = Integer.getInteger("lms.cache.patrons", 100_000);
+
+    /** Returned by get / getByUsername when the answer is not in memory: ask the database. */
+    static final Object[] NOT_CACHED = new Object[0];
+
+    static final String SQL_LOAD = "SELECT id, full_name, username, status FROM users ORDER BY id LIMIT ?";
+    static final String SQL_ROW = "SELECT id, full_name, username, status FROM users WHERE id = ?";
+
+    private static int[] ids = new int[16];
+    private static String[] fullNames = new String[16];
+    private static String[] usernames = new String[16];
+    private static byte[] statusCodes = new byte[16];
+    private static String[] statuses = new String[0];   // status code -> text (a handful of distinct values)
+    private static int slots;                           // slots used so far; freed ones are on the free list
+    private static int[] free = new int[16];
+    private static int freeCount;
+    private static final SlotTable byId = new SlotTable(false);
+    private static final SlotTable byName = new SlotTable(true);
+    private static boolean complete;                    // the cache holds every row of users
+    private static long hits, misses, fallbacks, loadNanos;
+
+    /** Reads all patrons (up to the cap). Called once at startup; a database with more rows loads partially. */
+    static synchronized void load(Connection c) throws SQLException {
+        long start = System.nanoTime();
+        clear();
+        try (PreparedStatement ps = c.prepareStatement(SQL_LOAD)) {
+            ps.setInt(1, MAX_ENTRIES + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                complete = true;
+                while (rs.next()) {
+                    if (size() == MAX_ENTRIES) { complete = false; break; }
+                    put(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4));
+                }
+            }
+        }
+        loadNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Re-reads patron id on c (after a committed insert, update or delete of it).
+     * Returns +1 / -1 if that made one more / one fewer Active patron, 0 otherwise or if the old row was not known.
+     */
+    static synchronized int refresh(Connection c, int id) {
+        int slot = byId.find(id, null);
+        if (slot < 0 && !complete) { // the old row is not known: LibraryStats' check corrects the count
+            refreshRow(c, id);
+            return 0;
+        }
+        boolean was = slot >= 0 && active(statuses[statusCodes[slot]]);
+        boolean now = refreshRow(c, id);
+        return (now ? 1 : 0) - (was ? 1 : 0);
+    }
+
+    // true if the row now exists and is Active
+    private static boolean refreshRow(Connection c, int id) {
+        try (PreparedStatement ps = c.prepareStatement(SQL_ROW)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) { remove(id); return false; }
+                if (byId.find(id, null) >= 0 || size() < MAX_ENTRIES) put(id, rs.getString(2), rs.getString(3), rs.getString(4));
+                else complete = false; // a new patron past the cap
+                return active(rs.getString(4));
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            remove(id);
+            complete = false; // unsure whether the row exists: let lookups ask the database
+            return false;
+        }
+    }
+
+    private static boolean active(String status) { return "Active".equalsIgnoreCase(status); }
+
+    /** {id, full_name, username, status}, null if there is no such patron, or NOT_CACHED. */
+    static synchronized Object[] get(int id) {
+        return row(byId.find(id, null));
+    }
+
+    /** As get, by exact username (the users.username = ? match). */
+    static synchronized Object[] getByUsername(String username) {
+        return username == null ? null : row(byName.find(username.hashCode(), username));
+    }
+
+    /** Counts a lookup that DBHelper had to answer from the database. */
+    static synchronized void fellBack() { fallbacks++; }
+
+    private static Object[] row(int slot) {
+        if (slot < 0) {
+            misses++;
+            return complete ? null : NOT_CACHED;
+        }
+        hits++;
+        return new Object[]{ids[slot], fullNames[slot], usernames[slot], statuses[statusCodes[slot]]};
+    }
+
+    private static void put(int id, String fullName, String username, String status) {
+        int slot = byId.find(id, null);
+        if (slot >= 0) {
+            byName.remove(slot);
+        } else {
+            slot = freeCount > 0 ? free[--freeCount] : slots++;
+            if (slot == ids.length) grow();
+            ids[slot] = id;
+            byId.add(slot);
+        }
+        fullNames[slot] = fullName;
+        usernames[slot] = username;
+        statusCodes[slot] = statusCode(status);
+        if (username != null) {
+            int other = byName.find(username.hashCode(), username);
+            if (other >= 0) byName.remove(other); // renamed away from, not refreshed yet
+            byName.add(slot);
+        }
+    }
+
+    private static void remove(int id) {
+        int slot = byId.find(id, null);
+        if (slot < 0) return;
+        byId.remove(slot);
+        byName.remove(slot);
+        fullNames[slot] = null;
+        usernames[slot] = null;
+        if (freeCount == free.length) free = Arrays.copyOf(free, free.length * 2);
+        free[freeCount++] = slot;
+    }
+
+    private static byte statusCode(String status) {
+        for (int i = 0; i < statuses.length; i++) {
+            if (statuses[i] == null ? status == null : statuses[i].equals(status)) return (byte) i;
+        }
+        if (statuses.length == 127) return 0; // free-text statuses beyond 127 distinct values are not expected
+        statuses = Arrays.copyOf(statuses, statuses.length + 1);
+        statuses[statuses.length - 1] = status;
+        return (byte) (statuses.length - 1);
+    }
+
+    private static void grow() {
+        int n = ids.length * 2;
+        ids = Arrays.copyOf(ids, n);
+        fullNames = Arrays.copyOf(fullNames, n);
+        usernames = Arrays.copyOf(usernames, n);
+        statusCodes = Arrays.copyOf(statusCodes, n);
+    }
+
+    private static int size() { return slots - freeCount; }
+
+    private static void clear() {
+        slots = 0;
+        freeCount = 0;
+        Arrays.fill(fullNames, null);
+        Arrays.fill(usernames, null);
+        byId.clear();
+        byName.clear();
+        complete = false;
+    }
+
+    static synchronized String stats() {
+        long lookups = hits + misses;
+        long bytes = 4L * ids.length + 1L * statusCodes.length + 8L * ids.length + 4L * (byId.table.length + byName.table.length + free.length);
+        for (int s = 0; s < slots; s++) {
+            if (fullNames[s] != null) bytes += 40 + fullNames[s].length();
+            if (usernames[s] != null) bytes += 40 + usernames[s].length();
+        }
+        return String.format("patron cache entries=%d/%d complete=%b hits=%d misses=%d hitRatio=%.1f%% dbFallbacks=%d load=%.1fms approx=%dKB",
+                size(), MAX_ENTRIES, complete, hits, misses, lookups == 0 ? 0 : 100.0 * hits / lookups, fallbacks,
+                loadNanos / 1e6, bytes >> 10);
+    }
+
+    // Linear-probing table of slot + 1 (0 = empty), keyed by the id or the username of the slot.
+    // Removal shifts later entries of the run back, so there are no tombstones.
+    private static final class SlotTable {
+        final boolean byUsername;
+        int[] table = new int[32];
+        int count;
+
+        SlotTable(boolean byUsername) { this.byUsername = byUsername; }
+
+        // slot whose key is (hash, name) - name null means the key is the id hash itself - or -1
+        int find(int hash, String name) {
+            int mask = table.length - 1;
+            for (int i = mix(hash) & mask; table[i] != 0; i = (i + 1) & mask) {
+                int slot = table[i] - 1;
+                if (name == null ? ids[slot] == hash : name.equals(usernames[slot])) return slot;
+            }
+            return -1;
+        }
+
+        void add(int slot) {
+            if (2 * (count + 1) > table.length) resize(table.length * 2);
+            insert(slot);
+            count++;
+        }
+
+        void remove(int slot) {
+            if (byUsername && usernames[slot] == null) return;
+            int mask = table.length - 1;
+            int i = mix(key(slot)) & mask;
+            while (table[i] != 0 && table[i] != slot + 1) i = (i + 1) & mask;
+            if (table[i] == 0) return;
+            table[i] = 0;
+            count--;
+            for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) { // re-place the rest of the run
+                int moved = table[j] - 1;
+                table[j] = 0;
+                insert(moved);
+            }
+        }
+
+        void clear() {
+            Arrays.fill(table, 0);
+            count = 0;
+        }
+
+        private void insert(int slot) {
+            int mask = table.length - 1;
+            int i = mix(key(slot)) & mask;
+            while (table[i] != 0) i = (i + 1) & mask;
+            table[i] = slot + 1;
+        }
+
+        private void resize(int n) {
+            int[] old = table;
+            table = new int[n];
+            for (int v : old) if (v != 0) insert(v - 1);
+        }
+
+        private int key(int slot) { return byUsername ? usernames[slot].hashCode() : ids[slot]; }
+
+        private static int mix(int h) {
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
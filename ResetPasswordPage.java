@@ -16,9 +16,7 @@ public class ResetPasswordPage extends JDialog {
         setResizable(false);
         setLocationRelativeTo(null);
 
-        ImageIcon raw = new ImageIcon("00.jpg");
-        Image bgImg = raw.getImage().getScaledInstance(getWidth(), getHeight(), Image.SCALE_SMOOTH);
-        JLabel background = new JLabel(new ImageIcon(bgImg));
+        JLabel background = BackgroundImageCache.label(this, 460, 260);
         background.setLayout(new GridBagLayout());
         add(background);
 
@@ -0,0 +1,126 @@
+// SchemaIndexes.java
+import java.sql.*;
+
+/**
+ * SchemaIndexes - managed index set for books, users, librarians and issues.
+ * - every index is created with IF NOT EXISTS, so ensure() is safe on new and existing databases
+ * - books.isbn gets a UNIQUE index; if the table already holds duplicate ISBNs a plain index is
+ *   created instead and the duplicates are reported, so existing data is never rejected
+ * - librarians.username and users.username are already UNIQUE through their table definitions
+ * - explainAll() prints EXPLAIN QUERY PLAN for every DBHelper query (admin dashboard: "Query plans")
+ */
+class SchemaIndexes {
+
+    static final String UNIQUE_ISBN = "CREATE UNIQUE INDEX IF NOT EXISTS ux_books_isbn ON books(isbn)";
+    static final String PLAIN_ISBN = "CREATE INDEX IF NOT EXISTS idx_books_isbn ON books(isbn)";
+
+    static final String[] INDEXES = {
+            // per-user history, newest first
+            "CREATE INDEX IF NOT EXISTS idx_issues_user_date ON issues(user_id, issue_date)",
+            // open loans of a book
+            "CREATE INDEX IF NOT EXISTS idx_issues_open_book ON issues(book_id) WHERE return_date IS NULL",
+            // due-date scans over open loans
+            "CREATE INDEX IF NOT EXISTS idx_issues_open_due ON issues(due_date) WHERE return_date IS NULL",
+            // patron lookups by contact details
+            "CREATE INDEX IF NOT EXISTS idx_users_email ON users(email)",
+            "CREATE INDEX IF NOT EXISTS idx_users_phone ON users(phone)"
+    };
+
+    // label + SQL for every query DBHelper runs (parameters are left unbound for EXPLAIN)
+    static final String[][] QUERIES = {
+            {"getBookById", DBHelper.SQL_BOOK_BY_ID},
+            {"getBookByISBN", DBHelper.SQL_BOOK_BY_ISBN},
+            {"getAllBooksTableModel", DBHelper.SQL_ALL_BOOKS},
+            {"loadBooksPage", DBHelper.SQL_BOOKS_PAGE},
+            {"searchBookIds (ISBN)", DBHelper.SQL_BOOK_IDS_BY_ISBN_DIGITS},
+            {"searchBookIds (full text)", DBHelper.SQL_SEARCH_BOOK_IDS_FTS},
+            {"searchBookIds (LIKE fallback)", DBHelper.SQL_SEARCH_BOOK_IDS},
+            {"getAllBookIds", DBHelper.SQL_BOOK_IDS},
+            {"getAllBookIds (by title)", "SELECT id FROM books" + DBHelper.orderBy(DBHelper.BOOK_SORT, 2, true, "")},
+            {"searchBookIds (full text, by author)", DBHelper.SQL_SEARCH_BOOK_IDS_FTS_JOIN + DBHelper.orderBy(DBHelper.BOOK_SORT, 3, true, "b.") + " LIMIT ?"},
+            {"loadBookRows (block of 3)", DBHelper.SQL_BOOKS_BY_IDS_PREFIX + "?,?,?)"},
+            {"loadBookSearchText (block of 3)", DBHelper.SQL_BOOK_SEARCH_TEXT_PREFIX + "?,?,?)"},
+            {"updateBook", DBHelper.SQL_UPDATE_BOOK},
+            {"upsertBooksByIsbn (update)", DBHelper.SQL_UPDATE_BOOK_BY_ISBN},
+            {"deleteBookById", DBHelper.SQL_DELETE_BOOK},
+            {"getAllUsersTableModel", DBHelper.SQL_ALL_USERS},
+            {"loadUsersPage", DBHelper.SQL_USERS_PAGE},
+            {"loadUsersPage (by username, next page)", DBHelper.sortedPageSql(DBHelper.SQL_USERS_SELECT, null, DBHelper.USER_SORT, 2, true, false, false)},
+            {"loadUsersPage (by email desc, next page)", DBHelper.sortedPageSql(DBHelper.SQL_USERS_SELECT, null, DBHelper.USER_SORT, 3, false, false, false)},
+            {"getUserById", DBHelper.SQL_USER_BY_ID},
+            {"getUserByUsername", DBHelper.SQL_USER_BY_USERNAME},
+            {"PatronCache.load", PatronCache.SQL_LOAD},
+            {"PatronCache.refresh", PatronCache.SQL_ROW},
+            {"getAllLibrariansTableModel", DBHelper.SQL_ALL_LIBRARIANS},
+            {"loadLibrariansPage", DBHelper.SQL_LIBRARIANS_PAGE},
+            {"searchLibrariansTableModel", DBHelper.SQL_SEARCH_LIBRARIANS},
+            {"getLibrarianById", DBHelper.SQL_LIBRARIAN_BY_ID},
+            {"LibrarianPhotos.loadOriginal", LibrarianPhotos.SQL_ORIGINAL},
+            {"AvailabilityLedger.load", AvailabilityLedger.SQL_LOAD},
+            {"insertIssue (decrement available)", DBHelper.SQL_DEC_AVAILABLE},
+            {"insertIssue / returnIssue (available after)", DBHelper.SQL_BOOK_AVAILABLE},
+            {"returnIssue (find book)", DBHelper.SQL_ISSUE_BOOK_ID},
+            {"returnIssue (mark returned)", DBHelper.SQL_RETURN_ISSUE},
+            {"returnIssue (increment available)", DBHelper.SQL_INC_AVAILABLE},
+            {"getAllIssuesTableModel", DBHelper.SQL_ALL_ISSUES},
+            {"loadIssuesPage", DBHelper.SQL_ISSUES_PAGE},
+            {"loadIssuesPage (by due date, next page)", DBHelper.sortedPageSql(DBHelper.SQL_ISSUES_SELECT, null, DBHelper.ISSUE_SORT, 6, true, false, false)},
+            {"loadIssuesPage (by return date desc, no date)", DBHelper.sortedPageSql(DBHelper.SQL_ISSUES_SELECT, null, DBHelper.ISSUE_SORT, 7, false, true, false)},
+            {"getIssueById", DBHelper.SQL_ISSUE_BY_ID},
+            {"loadOverduePage (next page)", DBHelper.sortedPageSql(DBHelper.SQL_OVERDUE_SELECT, DBHelper.SQL_OVERDUE_FILTER,
+                    DBHelper.ISSUE_SORT, 6, true, false, false)},
+            {"OverdueScanner (overdue due dates)", OverdueScanner.SQL_OVERDUE_DATES},
+            {"OverdueScanner (set late days)", OverdueScanner.SQL_SET_LATE_DAYS},
+            {"getIssuesForUser (by id, next page)", DBHelper.sortedPageSql(DBHelper.SQL_ISSUES_SELECT, "user_id = ?",
+                    DBHelper.ISSUE_SORT, 5, false, false, false)},
+            {"getIssuesForUser (by name, open, dates)", DBHelper.sortedPageSql(DBHelper.SQL_ISSUES_SELECT,
+                    "user_id IN (" + DBHelper.SQL_USER_IDS_BY_PREFIX + ") AND return_date IS NULL AND issue_date >= ? AND issue_date <= ?",
+                    DBHelper.ISSUE_SORT, 5, false, false, true)},
+            {"loadListingRow (users)", DBHelper.SQL_USER_ROW_BY_ID},
+            {"loadListingRow (librarians)", DBHelper.SQL_LIBRARIAN_ROW_BY_ID},
+            {"updateBook / deleteBookById (counts before)", DBHelper.SQL_BOOK_COUNTS},
+            {"LibraryStats (books)", LibraryStats.SQL_BOOK_TOTALS},
+            {"LibraryStats (open issues by due date)", LibraryStats.SQL_OPEN_BY_DUE},
+            {"LibraryStats (active users)", LibraryStats.SQL_ACTIVE_USERS},
+            {"DataExporter (books)", DataExporter.SQL_EXPORT_BOOKS},
+            {"DataExporter (issues)", DataExporter.SQL_EXPORT_ISSUES},
+            {"DataExporter (issues by date)", DataExporter.SQL_EXPORT_ISSUES_RANGE}
+    };
+
+    /** Creates any missing index. Safe to call on every start. */
+    static void ensure(Connection c) throws SQLException {
+        try (Statement s = c.createStatement()) {
+            try {
+                s.execute(UNIQUE_ISBN);
+            } catch (SQLException dup) {
+                // existing duplicate ISBNs: keep the lookup fast without rejecting the data
+                System.out.println("Warning: " + countDuplicateIsbns(c) + " ISBNs appear more than once in books; created a non-unique ISBN index.");
+                s.execute(PLAIN_ISBN);
+            }
+            for (String ddl : INDEXES) s.execute(ddl);
+            s.execute("PRAGMA optimize"); // refresh planner statistics where they are stale
+        }
+    }
+
+    private static int countDuplicateIsbns(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT COUNT(*) FROM (SELECT isbn FROM books GROUP BY isbn HAVING COUNT(*) > 1)");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /** EXPLAIN QUERY PLAN output for every query in QUERIES. */
+    static String explainAll(Connection c) {
+        StringBuilder sb = new StringBuilder();
+        for (String[] q : QUERIES) {
+            sb.append("== ").append(q[0]).append('\n').append(q[1]).append('\n');
+            try (PreparedStatement ps = c.prepareStatement("EXPLAIN QUERY PLAN " + q[1]); ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) sb.append("   ").append(rs.getString("detail")).append('\n');
+            } catch (SQLException ex) {
+                sb.append("   (cannot explain: ").append(ex.getMessage()).append(")\n");
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
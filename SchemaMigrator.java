@@ -0,0 +1,284 @@
+// SchemaMigrator.java
+import java.sql.*;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * SchemaMigrator - single owner of the library.db schema.
+ * - the applied schema version is kept in PRAGMA user_version
+ * - MIGRATIONS run in order, each one in its own transaction together with the version bump
+ * - once the database is current, startup costs one PRAGMA read and no DDL at all
+ * - migrations are written to be idempotent (IF NOT EXISTS / column checks), so a database created by
+ *   an older build of OpeningPage or DBHelper is brought to the same shape as a fresh one
+ *
+ * To change the schema, append a migration; never edit one that has shipped.
+ */
+class SchemaMigrator {
+
+    interface Migration {
+        void apply(Connection c) throws SQLException;
+    }
+
+    static final Migration[] MIGRATIONS = {
+            SchemaMigrator::createBaseTables,       // 1
+            SchemaMigrator::reconcileLegacyColumns, // 2
+            SchemaIndexes::ensure,                  // 3
+            SchemaMigrator::seedDefaultAccounts,    // 4
+            SchemaMigrator::addIssueDateIndex,      // 5
+            SchemaMigrator::createBooksFullText,    // 6
+            SchemaMigrator::addSortIndexes,         // 7
+            SchemaMigrator::addUserNameIndexes,     // 8
+            SchemaMigrator::addLibrarianThumbnails, // 9
+            SchemaMigrator::addCurrentLateDays,     // 10
+            SchemaMigrator::partialReturnDateIndex  // 11
+    };
+
+    static int latestVersion() { return MIGRATIONS.length; }
+
+    /** Applies pending migrations; returns the version the database had before. */
+    static int migrate(Connection c) throws SQLException {
+        int from = currentVersion(c);
+        if (from >= MIGRATIONS.length) return from;
+        boolean auto = c.getAutoCommit();
+        try {
+            for (int v = from; v < MIGRATIONS.length; v++) {
+                long start = System.nanoTime();
+                c.setAutoCommit(false);
+                MIGRATIONS[v].apply(c);
+                try (Statement s = c.createStatement()) {
+                    s.execute("PRAGMA user_version = " + (v + 1));
+                }
+                c.commit();
+                System.out.printf("Schema migrated to version %d (%.1f ms)%n", v + 1, (System.nanoTime() - start) / 1_000_000.0);
+            }
+        } catch (SQLException ex) {
+            c.rollback();
+            throw ex;
+        } finally {
+            c.setAutoCommit(auto);
+        }
+        return from;
+    }
+
+    static int currentVersion(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("PRAGMA user_version"); ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // ---------- migrations ----------
+
+    // v1: the four tables, with the column sets DBHelper reads and writes
+    private static void createBaseTables(Connection c) throws SQLException {
+        try (Statement s = c.createStatement()) {
+            s.execute("CREATE TABLE IF NOT EXISTS books (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "isbn TEXT NOT NULL," +
+                    "title TEXT NOT NULL," +
+                    "author TEXT NOT NULL," +
+                    "category TEXT," +
+                    "publisher TEXT," +
+                    "publish_year TEXT," +
+                    "edition TEXT," +
+                    "quantity INTEGER DEFAULT 0," +
+                    "available INTEGER DEFAULT 0" +
+                    ")");
+            s.execute("CREATE TABLE IF NOT EXISTS users (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "full_name TEXT NOT NULL," +
+                    "username TEXT NOT NULL UNIQUE," +
+                    "password TEXT NOT NULL," +     // store hashed in production
+                    "email TEXT," +
+                    "phone TEXT," +
+                    "role TEXT NOT NULL," +         // Admin / Librarian / User
+                    "address TEXT," +
+                    "gender TEXT," +
+                    "status TEXT DEFAULT 'Active'," + // Active / Inactive
+                    "date_created TEXT," +
+                    "last_login TEXT" +
+                    ")");
+            s.execute("CREATE TABLE IF NOT EXISTS librarians (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "full_name TEXT NOT NULL," +
+                    "username TEXT NOT NULL UNIQUE," +
+                    "password TEXT NOT NULL," +
+                    "email TEXT," +
+                    "phone TEXT," +
+                    "address TEXT," +
+                    "gender TEXT," +
+                    "date_joining TEXT," +
+                    "shift TEXT," +
+                    "status TEXT," +
+                    "photo BLOB" +
+                    ")");
+            s.execute("CREATE TABLE IF NOT EXISTS issues (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "book_id INTEGER," +
+                    "book_title TEXT," +
+                    "user_id INTEGER," +
+                    "user_name TEXT," +
+                    "issue_date TEXT," +
+                    "due_date TEXT," +
+                    "return_date TEXT," +
+                    "late_days INTEGER DEFAULT 0," +
+                    "issued_by TEXT," +
+                    "remarks TEXT" +
+                    ")");
+        }
+    }
+
+    // v2: databases created by the old OpeningPage used users(name, ...) and librarians(name, ..., photo_path)
+    private static void reconcileLegacyColumns(Connection c) throws SQLException {
+        renameColumnIfPresent(c, "users", "name", "full_name");
+        addColumnIfMissing(c, "users", "address", "TEXT");
+        addColumnIfMissing(c, "users", "gender", "TEXT");
+        addColumnIfMissing(c, "users", "status", "TEXT DEFAULT 'Active'");
+        addColumnIfMissing(c, "users", "date_created", "TEXT");
+        addColumnIfMissing(c, "users", "last_login", "TEXT");
+
+        renameColumnIfPresent(c, "librarians", "name", "full_name");
+        addColumnIfMissing(c, "librarians", "address", "TEXT");
+        addColumnIfMissing(c, "librarians", "gender", "TEXT");
+        addColumnIfMissing(c, "librarians", "date_joining", "TEXT");
+        addColumnIfMissing(c, "librarians", "shift", "TEXT");
+        addColumnIfMissing(c, "librarians", "status", "TEXT");
+        addColumnIfMissing(c, "librarians", "photo", "BLOB"); // photo_path (if any) is left in place, unused
+    }
+
+    // v4: default accounts that the old OpeningPage created on an empty database
+    private static void seedDefaultAccounts(Connection c) throws SQLException {
+        if (isEmpty(c, "users")) {
+            String sql = "INSERT INTO users (full_name, username, password, email, phone, role, status, date_created) VALUES (?, ?, ?, ?, ?, ?, 'Active', ?)";
+            String now = java.time.LocalDateTime.now().toString();
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                String[][] rows = {
+                        {"Admin User", "admin", "admin123", "admin@library.com", "1234567890", "admin"},
+                        {"Librarian User", "librarian", "lib123", "lib@library.com", "0987654321", "librarian"},
+                        {"Regular User", "user", "user123", "user@library.com", "1122334455", "user"}
+                };
+                for (String[] r : rows) {
+                    for (int i = 0; i < r.length; i++) ps.setString(i + 1, r[i]);
+                    ps.setString(7, now);
+                    ps.executeUpdate();
+                }
+            }
+        }
+        if (isEmpty(c, "librarians")) {
+            String sql = "INSERT INTO librarians (full_name, username, password, email, phone, status) VALUES (?, ?, ?, ?, ?, 'Active')";
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                ps.setString(1, "John Librarian");
+                ps.setString(2, "johnlib");
+                ps.setString(3, "john123");
+                ps.setString(4, "john@lib.com");
+                ps.setString(5, "1112223333");
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    // v5: date-range exports of issues (DataExporter)
+    private static void addIssueDateIndex(Connection c) throws SQLException {
+        try (Statement s = c.createStatement()) {
+            s.execute("CREATE INDEX IF NOT EXISTS idx_issues_issue_date ON issues(issue_date)");
+        }
+    }
+
+    // v6: full-text index for book search, kept in sync by triggers.
+    // External content: books_fts stores only the index, the text stays in books. The update trigger is limited
+    // to the indexed columns, so issue/return (available) and quantity changes never touch the index.
+    private static void createBooksFullText(Connection c) throws SQLException {
+        try (Statement s = c.createStatement()) {
+            s.execute("CREATE INDEX IF NOT EXISTS idx_books_isbn_digits ON books(replace(replace(isbn, '-', ''), ' ', ''))");
+            try {
+                s.execute("CREATE VIRTUAL TABLE IF NOT EXISTS books_fts USING fts5(isbn, title, author, category, " +
+                        "content='books', content_rowid='id', tokenize='unicode61 remove_diacritics 2', prefix='2 3')");
+            } catch (SQLException noFts5) {
+                System.out.println("Warning: FTS5 is not available (" + noFts5.getMessage() + "); book search will use LIKE.");
+                return;
+            }
+            s.execute("CREATE TRIGGER IF NOT EXISTS books_fts_ai AFTER INSERT ON books BEGIN " +
+                    "INSERT INTO books_fts(rowid, isbn, title, author, category) VALUES (new.id, new.isbn, new.title, new.author, new.category); END");
+            s.execute("CREATE TRIGGER IF NOT EXISTS books_fts_ad AFTER DELETE ON books BEGIN " +
+                    "INSERT INTO books_fts(books_fts, rowid, isbn, title, author, category) VALUES ('delete', old.id, old.isbn, old.title, old.author, old.category); END");
+            s.execute("CREATE TRIGGER IF NOT EXISTS books_fts_au AFTER UPDATE OF isbn, title, author, category ON books BEGIN " +
+                    "INSERT INTO books_fts(books_fts, rowid, isbn, title, author, category) VALUES ('delete', old.id, old.isbn, old.title, old.author, old.category); " +
+                    "INSERT INTO books_fts(rowid, isbn, title, author, category) VALUES (new.id, new.isbn, new.title, new.author, new.category); END");
+            s.execute("INSERT INTO books_fts(books_fts) VALUES ('rebuild')"); // index the rows that are already there
+        }
+    }
+
+    // v7: header-click sorting (DBHelper.BOOK_SORT / ISSUE_SORT) reads these in order instead of sorting the table.
+    // issues.user_id is already led by idx_issues_user_date, issue_date by idx_issues_issue_date (v5).
+    private static void addSortIndexes(Connection c) throws SQLException {
+        try (Statement s = c.createStatement()) {
+            s.execute("CREATE INDEX IF NOT EXISTS idx_books_title ON books(title)");
+            s.execute("CREATE INDEX IF NOT EXISTS idx_books_author ON books(author)");
+            s.execute("CREATE INDEX IF NOT EXISTS idx_books_category ON books(category)");
+            s.execute("CREATE INDEX IF NOT EXISTS idx_books_publish_year ON books(publish_year)");
+            s.execute("CREATE INDEX IF NOT EXISTS idx_issues_due_date ON issues(due_date)");
+            s.execute("CREATE INDEX IF NOT EXISTS idx_issues_return_date ON issues(return_date)");
+        }
+    }
+
+    // v8: DBHelper.getIssuesForUser finds users by username / full name prefix, case-insensitively
+    private static void addUserNameIndexes(Connection c) throws SQLException {
+        try (Statement s = c.createStatement()) {
+            s.execute("CREATE INDEX IF NOT EXISTS idx_users_username_nocase ON users(username COLLATE NOCASE)");
+            s.execute("CREATE INDEX IF NOT EXISTS idx_users_full_name_nocase ON users(full_name COLLATE NOCASE)");
+        }
+    }
+
+    // v9: small photo next to the original, so forms stop reading the full BLOB (LibrarianPhotos)
+    private static void addLibrarianThumbnails(Connection c) throws SQLException {
+        addColumnIfMissing(c, "librarians", "photo_thumb", "BLOB");
+        int made = LibrarianPhotos.backfill(c);
+        if (made > 0) System.out.println("Made " + made + " librarian photo thumbnails");
+    }
+
+    // v10: late days of open loans as of the last OverdueScanner run, which reads them through idx_issues_open_due (v3)
+    private static void addCurrentLateDays(Connection c) throws SQLException {
+        addColumnIfMissing(c, "issues", "current_late_days", "INTEGER DEFAULT 0");
+    }
+
+    // v11: idx_issues_return_date (v7) only serves the return date sort, so it leaves out open loans. As a full index,
+    // "return_date IS NULL" looked like an equality seek to the planner, which then read every open loan through it
+    // instead of idx_issues_open_due. ANALYZE gives the planner row counts per index (PRAGMA optimize keeps them fresh).
+    private static void partialReturnDateIndex(Connection c) throws SQLException {
+        try (Statement s = c.createStatement()) {
+            s.execute("DROP INDEX IF EXISTS idx_issues_return_date");
+            s.execute("CREATE INDEX idx_issues_return_date ON issues(return_date) WHERE return_date IS NOT NULL");
+            s.execute("ANALYZE issues");
+        }
+    }
+
+    // ---------- helpers ----------
+
+    static Set<String> columns(Connection c, String table) throws SQLException {
+        Set<String> cols = new HashSet<>();
+        try (PreparedStatement ps = c.prepareStatement("PRAGMA table_info(" + table + ")"); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) cols.add(rs.getString("name").toLowerCase());
+        }
+        return cols;
+    }
+
+    static void addColumnIfMissing(Connection c, String table, String column, String type) throws SQLException {
+        if (columns(c, table).contains(column)) return;
+        try (Statement s = c.createStatement()) {
+            s.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+        }
+    }
+
+    static void renameColumnIfPresent(Connection c, String table, String from, String to) throws SQLException {
+        Set<String> cols = columns(c, table);
+        if (!cols.contains(from) || cols.contains(to)) return;
+        try (Statement s = c.createStatement()) {
+            s.execute("ALTER TABLE " + table + " RENAME COLUMN " + from + " TO " + to);
+        }
+    }
+
+    private static boolean isEmpty(Connection c, String table) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("SELECT 1 FROM " + table + " LIMIT 1"); ResultSet rs = ps.executeQuery()) {
+            return !rs.next();
+        }
+    }
+}
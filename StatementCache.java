@@ -0,0 +1,143 @@
+// StatementCache.java
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StatementCache - prepared statements of one physical connection, keyed by SQL text.
+ * - DBConnectionPool routes prepareStatement(sql) through it, so every DBHelper query reuses its compiled statement
+ * - least recently used statements are closed once the cache is full
+ * - close() on a cached statement only clears its parameters; the real statement stays prepared
+ * - if the same SQL is already in use on this connection (nested use), an uncached statement is handed out
+ * - hit / miss / eviction counters are shared by all connections
+ *
+ * Capacity per connection: -Dlms.db.statementCacheSize=N (default 64).
+ */
+class StatementCache {
+
+    static final int CAPACITY = Integer.getInteger("lms.db.statementCacheSize", 64);
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    private final Connection raw;
+    private final LinkedHashMap<String, Entry> entries;
+
+    StatementCache(Connection raw) {
+        this.raw = raw;
+        this.entries = new LinkedHashMap<String, Entry>(32, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= CAPACITY) return false;
+                evictions.incrementAndGet();
+                Entry e = eldest.getValue();
+                e.evicted = true;
+                if (!e.inUse) e.closeQuietly(); // an in-use statement is closed when the caller releases it
+                return true;
+            }
+        };
+    }
+
+    /** autoGeneratedKeys is Statement.NO_GENERATED_KEYS or Statement.RETURN_GENERATED_KEYS. */
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+        Entry e = entries.get(key);
+        if (e != null && !e.inUse) {
+            hits.incrementAndGet();
+        } else {
+            PreparedStatement ps = raw.prepareStatement(sql, autoGeneratedKeys);
+            misses.incrementAndGet();
+            if (e != null) return ps; // same SQL already open on this connection: plain, uncached statement
+            e = new Entry(ps);
+            entries.put(key, e);
+        }
+        e.inUse = true;
+        return e.handle();
+    }
+
+    void closeAll() {
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            it.next().closeQuietly();
+            it.remove();
+        }
+    }
+
+    int size() { return entries.size(); }
+
+    static long getHits() { return hits.get(); }
+    static long getMisses() { return misses.get(); }
+
+    static String stats() {
+        long h = hits.get(), m = misses.get();
+        return String.format("statements capacity=%d/conn hits=%d misses=%d hitRatio=%.1f%% evictions=%d",
+                CAPACITY, h, m, h + m == 0 ? 0 : 100.0 * h / (h + m), evictions.get());
+    }
+
+    private static final class Entry {
+        final PreparedStatement ps;
+        boolean inUse;
+        boolean evicted;
+
+        Entry(PreparedStatement ps) { this.ps = ps; }
+
+        PreparedStatement handle() {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new CachedHandle(this));
+        }
+
+        void release() {
+            inUse = false;
+            if (evicted) { closeQuietly(); return; }
+            try {
+                ps.clearParameters();
+                ps.clearBatch();
+            } catch (SQLException ex) {
+                evicted = true;
+                closeQuietly();
+            }
+        }
+
+        void closeQuietly() {
+            try { ps.close(); } catch (SQLException ignored) {}
+        }
+    }
+
+    /* Handle given to callers: close() puts the statement back instead of finalizing it. */
+    private static final class CachedHandle implements InvocationHandler {
+        private final Entry entry;
+        private boolean closed;
+
+        CachedHandle(Entry entry) { this.entry = entry; }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) { closed = true; entry.release(); }
+                    return null;
+                case "isClosed":
+                    return closed || entry.ps.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached" + entry.ps;
+                default:
+                    if (closed) throw new SQLException("Statement has been returned to the cache");
+                    try {
+                        return method.invoke(entry.ps, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+// UiTasks.java
+import javax.swing.*;
+import java.awt.*;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UiTasks - runs DBHelper work off the Event Dispatch Thread.
+ * - run(owner, work, onDone): work on a small worker pool, onDone on the EDT with the result
+ * - while a task runs its window shows the wait cursor, and any controls passed in are disabled (no double submits)
+ * - Slot: latest request wins; a new submit cancels the previous one (dropped if not started, result discarded if it was)
+ * - Task.onCancel lets a caller stop the work itself, e.g. DBHelper.QueryCancel interrupts a running search
+ * - exceptions are printed and reported in a dialog; onDone is not called
+ * - an EDT watchdog posts a probe every 100 ms and records how long the EDT took to run it;
+ *   stalls above the threshold are logged and counted (stats() / printed on exit)
+ *
+ * Workers: -Dlms.ui.workers=N (default 4, matching the DB pool). Stall threshold: -Dlms.ui.stallMs=N (default 200).
+ */
+class UiTasks {
+
+    interface Work<T> {
+        T call() throws Exception;
+    }
+
+    interface Done<T> {
+        void accept(T result);
+    }
+
+    static final int WORKERS = Integer.getInteger("lms.ui.workers", 4);
+    static final long STALL_MILLIS = Long.getLong("lms.ui.stallMs", 200L);
+    static final long PROBE_MILLIS = 100;
+
+    private static final AtomicInteger threadNo = new AtomicInteger();
+    private static final ExecutorService WORKER_POOL = Executors.newFixedThreadPool(WORKERS, r -> {
+        Thread t = new Thread(r, "ui-task-" + threadNo.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    // busy count per window, EDT only
+    private static final Map<Window, Integer> busy = new WeakHashMap<>();
+
+    private static final AtomicLong tasks = new AtomicLong();
+    private static final AtomicLong cancelled = new AtomicLong();
+    private static final AtomicLong taskNanos = new AtomicLong();
+    private static final AtomicLong stalls = new AtomicLong();
+    private static final AtomicLong stallNanos = new AtomicLong();
+    private static final AtomicLong maxStallNanos = new AtomicLong();
+    private static ScheduledExecutorService watchdog;
+
+    /** Runs work in the background; onDone (EDT) gets the result unless the task was cancelled or failed. Call on the EDT. */
+    static <T> Task<T> run(Component owner, Work<T> work, Done<T> onDone, Component... disableWhileRunning) {
+        startWatchdog();
+        Window window = owner == null ? null : (owner instanceof Window ? (Window) owner : SwingUtilities.getWindowAncestor(owner));
+        enterBusy(window, disableWhileRunning);
+        Task<T> task = new Task<>(() -> exitBusy(window, disableWhileRunning));
+        task.future = WORKER_POOL.submit(() -> {
+            if (task.cancelled) { SwingUtilities.invokeLater(task::release); return; }
+            long start = System.nanoTime();
+            T result = null;
+            Exception error = null;
+            try {
+                result = work.call();
+            } catch (Exception ex) {
+                error = ex;
+            }
+            tasks.incrementAndGet();
+            taskNanos.addAndGet(System.nanoTime() - start);
+            T r = result;
+            Exception err = error;
+            SwingUtilities.invokeLater(() -> {
+                task.release();
+                if (task.cancelled) return;
+                if (err != null) {
+                    err.printStackTrace();
+                    JOptionPane.showMessageDialog(owner, "Operation failed: " + err.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                if (onDone != null) onDone.accept(r);
+            });
+        });
+        return task;
+    }
+
+    private static void enterBusy(Window window, Component[] controls) {
+        for (Component c : controls) c.setEnabled(false);
+        if (window == null) return;
+        if (busy.merge(window, 1, Integer::sum) == 1) window.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+    }
+
+    private static void exitBusy(Window window, Component[] controls) {
+        for (Component c : controls) c.setEnabled(true);
+        if (window == null) return;
+        Integer n = busy.get(window);
+        if (n == null || n <= 1) {
+            busy.remove(window);
+            window.setCursor(Cursor.getDefaultCursor());
+        } else busy.put(window, n - 1);
+    }
+
+    /** A submitted task; cancel() drops it if it has not started and discards its result if it has. */
+    static final class Task<T> {
+        private final Runnable onRelease; // ends the busy state, once
+        private boolean released;
+        private volatile boolean cancelled;
+        private volatile Runnable onCancel;
+        private Future<?> future;
+
+        Task(Runnable onRelease) { this.onRelease = onRelease; }
+
+        /** Also runs r on cancel, e.g. to interrupt the task's SQL statement. */
+        void onCancel(Runnable r) { onCancel = r; }
+
+        void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            UiTasks.cancelled.incrementAndGet();
+            Runnable r = onCancel;
+            if (r != null) r.run();
+            if (future != null && future.cancel(false)) SwingUtilities.invokeLater(this::release); // never started
+        }
+
+        // EDT only
+        private void release() {
+            if (released) return;
+            released = true;
+            onRelease.run();
+        }
+
+        boolean isCancelled() { return cancelled; }
+    }
+
+    /** Latest-wins holder: each submit supersedes the previous request (e.g. a new search while one is running). */
+    static final class Slot {
+        private Task<?> current;
+
+        <T> Task<T> submit(Component owner, Work<T> work, Done<T> onDone) {
+            cancel();
+            Task<T> t = run(owner, work, onDone);
+            current = t;
+            return t;
+        }
+
+        void cancel() {
+            if (current != null) current.cancel();
+            current = null;
+        }
+    }
+
+    // ---------- EDT stall watchdog ----------
+
+    private static synchronized void startWatchdog() {
+        if (watchdog != null || GraphicsEnvironment.isHeadless()) return;
+        watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "edt-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        watchdog.scheduleWithFixedDelay(() -> {
+            long posted = System.nanoTime();
+            SwingUtilities.invokeLater(() -> recordLag(System.nanoTime() - posted));
+        }, PROBE_MILLIS, PROBE_MILLIS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println("UI " + stats()), "ui-stats"));
+    }
+
+    private static void recordLag(long lag) {
+        maxStallNanos.accumulateAndGet(lag, Math::max);
+        if (lag < STALL_MILLIS * 1_000_000L) return;
+        stalls.incrementAndGet();
+        stallNanos.addAndGet(lag);
+        System.out.printf("EDT stalled for %.0f ms%n", lag / 1_000_000.0);
+    }
+
+    static String stats() {
+        long n = tasks.get();
+        return String.format("tasks=%d avg=%.1fms cancelled=%d edtStalls=%d (>%dms) stalledTotal=%.0fms maxEdtLag=%.1fms",
+                n, n == 0 ? 0 : taskNanos.get() / 1_000_000.0 / n, cancelled.get(), stalls.get(), STALL_MILLIS,
+                stallNanos.get() / 1_000_000.0, maxStallNanos.get() / 1_000_000.0);
+    }
+}
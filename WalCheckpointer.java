@@ -0,0 +1,87 @@
+// WalCheckpointer.java
+import java.io.File;
+import java.sql.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WalCheckpointer - background WAL checkpoints for library.db.
+ * - runs PRAGMA wal_checkpoint(PASSIVE) on a daemon thread, so it never blocks readers or the writer
+ * - a TRUNCATE checkpoint on shutdown leaves a small -wal file behind
+ * - records checkpoint duration and WAL size so the interval can be tuned
+ *
+ * Interval: -Dlms.db.checkpointSeconds=N (default 60, 0 disables the schedule).
+ */
+class WalCheckpointer {
+
+    private final String walPath;
+    private final long intervalSeconds;
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong busyRuns = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong lastNanos = new AtomicLong();
+    private final AtomicLong lastWalBytesBefore = new AtomicLong();
+    private final AtomicLong lastWalBytesAfter = new AtomicLong();
+    private final AtomicLong maxWalBytes = new AtomicLong();
+
+    WalCheckpointer(String dbPath, long intervalSeconds) {
+        this.walPath = dbPath + "-wal";
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    synchronized void start() {
+        if (scheduler != null || intervalSeconds <= 0) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "wal-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> checkpoint("PASSIVE"), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /** Runs one checkpoint in the given mode (PASSIVE / FULL / RESTART / TRUNCATE). */
+    void checkpoint(String mode) {
+        long before = walSize();
+        maxWalBytes.accumulateAndGet(before, Math::max);
+        long start = System.nanoTime();
+        try (Connection c = DBHelper.getConnection();
+             PreparedStatement ps = c.prepareStatement("PRAGMA wal_checkpoint(" + mode + ")");
+             ResultSet rs = ps.executeQuery()) {
+            // columns: busy, pages in log, pages checkpointed
+            if (rs.next() && rs.getInt(1) != 0) busyRuns.incrementAndGet();
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            return;
+        }
+        long took = System.nanoTime() - start;
+        runs.incrementAndGet();
+        totalNanos.addAndGet(took);
+        lastNanos.set(took);
+        lastWalBytesBefore.set(before);
+        lastWalBytesAfter.set(walSize());
+    }
+
+    long walSize() {
+        File f = new File(walPath);
+        return f.exists() ? f.length() : 0;
+    }
+
+    String stats() {
+        long n = runs.get();
+        return String.format("wal size=%dKB max=%dKB checkpoints=%d busy=%d last=%.2fms avg=%.2fms lastBefore=%dKB lastAfter=%dKB",
+                walSize() / 1024, maxWalBytes.get() / 1024, n, busyRuns.get(),
+                lastNanos.get() / 1_000_000.0, n == 0 ? 0 : totalNanos.get() / 1_000_000.0 / n,
+                lastWalBytesBefore.get() / 1024, lastWalBytesAfter.get() / 1024);
+    }
+}